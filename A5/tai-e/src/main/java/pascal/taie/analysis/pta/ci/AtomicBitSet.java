@@ -0,0 +1,72 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Fixed-capacity bit set whose bits can be set concurrently without locks.
+ */
+class AtomicBitSet {
+
+    private final AtomicLongArray words;
+
+    AtomicBitSet(int capacity) {
+        words = new AtomicLongArray((capacity + 63) >>> 6);
+    }
+
+    /**
+     * Sets the bit at given index.
+     */
+    void set(int index) {
+        int i = index >>> 6;
+        long mask = 1L << index;
+        long word;
+        do {
+            word = words.get(i);
+            if ((word & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(i, word, word | mask));
+    }
+
+    /**
+     * Passes the indexes of all set bits to given action in ascending
+     * order, and clears the bits. Must not be called concurrently with
+     * {@link #set(int)}.
+     */
+    void drain(IntConsumer action) {
+        for (int i = 0; i < words.length(); ++i) {
+            long word = words.get(i);
+            if (word != 0) {
+                words.set(i, 0);
+                while (word != 0) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    action.accept((i << 6) + bit);
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+}
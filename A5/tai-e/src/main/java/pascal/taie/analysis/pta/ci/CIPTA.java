@@ -22,17 +22,24 @@
 
 package pascal.taie.analysis.pta.ci;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+
+import java.nio.file.Path;
 
 /**
  * Context-insensitive pointer analysis.
  */
 public class CIPTA extends ProgramAnalysis {
 
+    private static final Logger logger = LogManager.getLogger(CIPTA.class);
+
     public static final String ID = "cipta";
 
     public CIPTA(AnalysisConfig config) {
@@ -41,10 +48,47 @@ public class CIPTA extends ProgramAnalysis {
 
     @Override
     public PointerAnalysisResult analyze() {
-        HeapModel heapModel = new AllocationSiteBasedModel(getOptions());
-        Solver solver = new Solver(heapModel);
-        solver.solve();
-        CIPTAResult result = solver.getResult();
+        HeapModel heapModel = getOptions().getBooleanOrDefault("vta", false) ?
+                new TypeBasedModel() : new AllocationSiteBasedModel(getOptions());
+        String algorithm = getOptions().getString("solver");
+        CIPTAResult result;
+        long start = System.nanoTime();
+        if (algorithm == null || algorithm.equals("andersen")) {
+            String summaryFile = getOptions().getString("library-summaries");
+            LibrarySummaries summaries = summaryFile != null ?
+                    new LibrarySummaries(Path.of(summaryFile),
+                            getOptions().getBooleanOrDefault("regenerate-summaries", false)) :
+                    null;
+            Solver solver = new Solver(getOptions(), heapModel, summaries);
+            solver.solve();
+            result = solver.getResult();
+            if (summaries != null) {
+                summaries.save();
+            }
+        } else if (algorithm.equals("steensgaard")) {
+            SteensgaardSolver solver = new SteensgaardSolver(heapModel);
+            solver.solve();
+            result = solver.getResult();
+        } else if (algorithm.equals("wave")) {
+            WaveSolver solver = new WaveSolver(heapModel);
+            solver.solve();
+            result = solver.getResult();
+        } else if (algorithm.equals("parallel-wave")) {
+            int threads = getOptions().get("threads") instanceof Integer n ?
+                    n : Runtime.getRuntime().availableProcessors();
+            WaveSolver solver = new WaveSolver(heapModel, threads);
+            solver.solve();
+            result = solver.getResult();
+        } else if (algorithm.equals("datalog")) {
+            DatalogSolver solver = new DatalogSolver(heapModel);
+            solver.solve();
+            result = solver.getResult();
+        } else {
+            throw new ConfigException("Unknown pointer analysis solver: " + algorithm);
+        }
+        logger.info("Pointer analysis ({} solver) finished in {} ms",
+                algorithm != null ? algorithm : "andersen",
+                (System.nanoTime() - start) / 1_000_000);
         new ResultProcessor(getOptions()).process(result);
         return result;
     }
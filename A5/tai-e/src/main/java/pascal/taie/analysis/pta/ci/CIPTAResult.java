@@ -39,7 +39,6 @@ import pascal.taie.util.collection.Views;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 class CIPTAResult implements PointerAnalysisResult {
 
@@ -54,12 +53,52 @@ class CIPTAResult implements PointerAnalysisResult {
      */
     private final Map<Pair<Var, JField>, Set<Obj>> fieldPointsTo = Maps.newMap();
 
-    private Set<Obj> objects;
+    /**
+     * Numbering of the objects in the frozen points-to sets.
+     */
+    private final ObjIndexer objIndexer = new ObjIndexer();
 
+    /**
+     * Freezes the given pointer flow graph and the points-to sets of its
+     * pointers, so that the queries are served from the compact frozen
+     * form and the mutable structures of the solver are released.
+     * The pointers with the same objects share one frozen points-to set.
+     */
     CIPTAResult(PointerFlowGraph pointerFlowGraph,
                 CallGraph<Invoke, JMethod> callGraph) {
         this.pointerFlowGraph = pointerFlowGraph;
         this.callGraph = callGraph;
+        // measuring the heap requires full garbage collections,
+        // which are only worth it when the figures are logged
+        boolean logHeap = logger.isDebugEnabled();
+        long usedBefore = logHeap ? getUsedMemory() : 0;
+        pointerFlowGraph.freeze();
+        int distinctSets = freezePointsToSets();
+        logger.info("Froze {} points-to sets into {} distinct sets",
+                pointerFlowGraph.getNumberOfPointers(), distinctSets);
+        if (logHeap) {
+            logger.debug("Used heap: {} MB before freezing, {} MB after",
+                    usedBefore / (1024 * 1024), getUsedMemory() / (1024 * 1024));
+        }
+    }
+
+    /**
+     * @return the number of distinct frozen points-to sets.
+     */
+    private int freezePointsToSets() {
+        PointsToSet.Table table = new PointsToSet.Table();
+        pointerFlowGraph.getPointers().forEach(p ->
+                p.freezePointsToSet(objIndexer, table));
+        return table.size();
+    }
+
+    /**
+     * @return the heap memory (in bytes) used by reachable objects.
+     */
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
     }
 
     @Override
@@ -72,21 +111,12 @@ class CIPTAResult implements PointerAnalysisResult {
 
     @Override
     public Collection<Obj> getObjects() {
-        if (objects == null) {
-            objects = pointerFlowGraph.getPointers()
-                    .stream()
-                    .map(Pointer::getPointsToSet)
-                    .flatMap(PointsToSet::objects)
-                    .collect(Collectors.toUnmodifiableSet());
-        }
-        return objects;
+        return objIndexer.getObjects();
     }
 
     @Override
     public Set<Obj> getPointsToSet(Var var) {
-        return pointerFlowGraph.getVarPtr(var)
-                .getPointsToSet()
-                .getObjects();
+        return getObjects(pointerFlowGraph.getVarPtr(var));
     }
 
     @Override
@@ -97,9 +127,7 @@ class CIPTAResult implements PointerAnalysisResult {
         return fieldPointsTo.computeIfAbsent(new Pair<>(base, field), p -> {
             Set<Obj> pts = Sets.newHybridSet();
             getPointsToSet(base).forEach(o -> {
-                InstanceField fieldPtr = pointerFlowGraph
-                        .getInstanceField(o, field);
-                pts.addAll(fieldPtr.getPointsToSet().getObjects());
+                pts.addAll(getObjects(pointerFlowGraph.getInstanceField(o, field)));
             });
             return pts;
         });
@@ -110,9 +138,12 @@ class CIPTAResult implements PointerAnalysisResult {
         if (!field.isStatic()) {
             logger.warn("{} is not static field", field);
         }
-        return pointerFlowGraph.getStaticField(field)
-                .getPointsToSet()
-                .getObjects();
+        return getObjects(pointerFlowGraph.getStaticField(field));
+    }
+
+    private static Set<Obj> getObjects(Pointer pointer) {
+        return pointer != null ?
+                pointer.getPointsToSet().getObjects() : Set.of();
     }
 
     @Override
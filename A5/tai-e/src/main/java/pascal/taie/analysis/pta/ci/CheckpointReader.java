@@ -0,0 +1,235 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the checkpoint written by {@link CheckpointWriter}.
+ * <p>
+ * Objects and variables are encoded as indexes in the IR of methods, so
+ * a checkpoint is only read if the {@link CheckpointWriter.Fingerprint}
+ * in its header matches the methods in current program. Fields which
+ * cannot be found in current program are skipped.
+ */
+class CheckpointReader {
+
+    /**
+     * The state restored from a checkpoint.
+     *
+     * @param reachableMethods the reachable methods.
+     * @param callEdges        the call edges.
+     * @param entries          the points-to sets and the pending
+     *                         work-list entries.
+     */
+    record Checkpoint(List<JMethod> reachableMethods,
+                      List<Edge<Invoke, JMethod>> callEdges,
+                      List<WorkList.Entry> entries) {
+    }
+
+    private final PointerFlowGraph pointerFlowGraph;
+
+    private final HeapModel heapModel;
+
+    private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+    private final Map<Integer, JMethod> methods = Maps.newMap();
+
+    private final Map<Integer, Obj> objs = Maps.newMap();
+
+    private final List<JMethod> reachableMethods = new ArrayList<>();
+
+    private final List<Edge<Invoke, JMethod>> callEdges = new ArrayList<>();
+
+    private final List<WorkList.Entry> entries = new ArrayList<>();
+
+    private CheckpointReader(PointerFlowGraph pointerFlowGraph, HeapModel heapModel) {
+        this.pointerFlowGraph = pointerFlowGraph;
+        this.heapModel = heapModel;
+    }
+
+    /**
+     * @return the state in given checkpoint, or null if the checkpoint
+     * does not match current program.
+     */
+    @Nullable
+    static Checkpoint read(Path file, PointerFlowGraph pointerFlowGraph,
+                           HeapModel heapModel) {
+        if (!matchesProgram(file)) {
+            return null;
+        }
+        CheckpointReader reader = new CheckpointReader(pointerFlowGraph, heapModel);
+        try (BufferedReader lines = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                reader.read(line.split(CheckpointWriter.SEP));
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read checkpoint from " + file, e);
+        }
+        return new Checkpoint(reader.reachableMethods,
+                reader.callEdges, reader.entries);
+    }
+
+    /**
+     * Computes the fingerprint of the methods in given checkpoint as they
+     * are in current program, and compares it with the one in the header.
+     */
+    private static boolean matchesProgram(Path file) {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        CheckpointWriter.Fingerprint fingerprint = new CheckpointWriter.Fingerprint();
+        String expected = null;
+        try (BufferedReader lines = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                String[] parts = line.split(CheckpointWriter.SEP);
+                if (parts[0].equals("h")) {
+                    expected = parts[1];
+                } else if (parts[0].equals("m")) {
+                    JMethod method = hierarchy.getMethod(parts[2]);
+                    if (method == null) {
+                        return false;
+                    }
+                    fingerprint.add(method);
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read checkpoint from " + file, e);
+        }
+        return fingerprint.get().equals(expected);
+    }
+
+    private void read(String[] parts) {
+        switch (parts[0]) {
+            case "h" -> {
+                // checked by matchesProgram()
+            }
+            case "m" -> methods.put(id(parts[1]), hierarchy.getMethod(parts[2]));
+            case "o" -> {
+                if (getStmt(parts[2], parts[3]) instanceof New allocSite) {
+                    objs.put(id(parts[1]), heapModel.getObj(allocSite));
+                }
+            }
+            case "r" -> {
+                JMethod method = methods.get(id(parts[1]));
+                if (method != null) {
+                    reachableMethods.add(method);
+                }
+            }
+            case "e" -> {
+                JMethod callee = methods.get(id(parts[4]));
+                if (callee != null &&
+                        getStmt(parts[2], parts[3]) instanceof Invoke callSite) {
+                    callEdges.add(new Edge<>(CallKind.valueOf(parts[1]),
+                            callSite, callee));
+                }
+            }
+            case "p", "w" -> {
+                Pointer pointer = readPointer(
+                        Arrays.copyOfRange(parts, 1, parts.length - 1));
+                if (pointer != null) {
+                    PointsToSet pts = new PointsToSet();
+                    for (String obj : parts[parts.length - 1].split(",")) {
+                        Obj o = objs.get(id(obj));
+                        if (o != null) {
+                            pts.addObject(o);
+                        }
+                    }
+                    if (!pts.isEmpty()) {
+                        entries.add(new WorkList.Entry(pointer, pts));
+                    }
+                }
+            }
+            default -> throw new AnalysisException(
+                    "Invalid checkpoint line: " + String.join(CheckpointWriter.SEP, parts));
+        }
+    }
+
+    private Pointer readPointer(String[] parts) {
+        switch (parts[0]) {
+            case "v" -> {
+                JMethod method = methods.get(id(parts[1]));
+                int index = id(parts[2]);
+                if (method != null && index < method.getIR().getVars().size()) {
+                    return pointerFlowGraph.getVarPtr(method.getIR().getVar(index));
+                }
+            }
+            case "s" -> {
+                JField field = hierarchy.getField(parts[1]);
+                if (field != null) {
+                    return pointerFlowGraph.getStaticField(field);
+                }
+            }
+            case "f" -> {
+                Obj base = objs.get(id(parts[1]));
+                JField field = hierarchy.getField(parts[2]);
+                if (base != null && field != null) {
+                    return pointerFlowGraph.getInstanceField(base, field);
+                }
+            }
+            case "a" -> {
+                Obj array = objs.get(id(parts[1]));
+                if (array != null) {
+                    return pointerFlowGraph.getArrayIndex(array);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the statement of given index in given method,
+     * or null if it is absent.
+     */
+    private Object getStmt(String methodId, String index) {
+        JMethod method = methods.get(id(methodId));
+        int i = id(index);
+        return method != null && i < method.getIR().getStmts().size() ?
+                method.getIR().getStmt(i) : null;
+    }
+
+    private static int id(String s) {
+        return Integer.parseInt(s);
+    }
+}
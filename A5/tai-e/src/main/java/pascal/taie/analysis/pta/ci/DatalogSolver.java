@@ -0,0 +1,546 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.*;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pointer analysis evaluated as a Datalog program.
+ * <p>
+ * The statements of reachable methods are extracted into relations over
+ * int-numbered variables (static fields are numbered as variables too),
+ * objects and fields, which are stored in columns indexed by their first
+ * column:
+ * <pre>
+ * Assign(to, from)        Load(to, base, field)    Store(base, field, from)
+ * LoadArray(to, base)     StoreArray(base, from)   VCall(base, invoke)
+ * </pre>
+ * The derived relations VarPointsTo(var, obj), FieldPointsTo(obj, field,
+ * obj), ArrayPointsTo(obj, obj) are kept as bit sets of objects, and
+ * CallGraph(invoke, method) and Reachable(method) are kept by the call
+ * graph, computed by the rules:
+ * <pre>
+ * VarPointsTo(to, o)         :- Assign(to, from), VarPointsTo(from, o).
+ * VarPointsTo(to, o2)        :- Load(to, base, f), VarPointsTo(base, o),
+ *                               FieldPointsTo(o, f, o2).
+ * FieldPointsTo(o, f, o2)    :- Store(base, f, from), VarPointsTo(base, o),
+ *                               VarPointsTo(from, o2).
+ * VarPointsTo(this, o), CallGraph(i, m)
+ *                            :- VCall(base, i), VarPointsTo(base, o),
+ *                               m = dispatch(o, i), this = this var of m.
+ * Assign(param, arg), Assign(lhs, ret), Reachable(m)
+ *                            :- CallGraph(i, m).
+ * </pre>
+ * plus the analogous rules for arrays. The rules are evaluated semi-naively:
+ * each iteration only joins the facts derived in the previous iteration
+ * (the delta relations) with the full relations, until no new fact
+ * is derived.
+ */
+class DatalogSolver {
+
+    private final HeapModel heapModel;
+
+    private DefaultCallGraph callGraph;
+
+    /**
+     * Variables and static fields, indexed by their numbers.
+     */
+    private final List<Object> vars = new ArrayList<>();
+
+    private final Map<Object, Integer> varIds = Maps.newMap();
+
+    private final List<Obj> objs = new ArrayList<>();
+
+    private final Map<Obj, Integer> objIds = Maps.newMap();
+
+    private final List<JField> fields = new ArrayList<>();
+
+    private final Map<JField, Integer> fieldIds = Maps.newMap();
+
+    // extracted relations, indexed by the variable in the first comment
+    /** from: Assign(to, from) */
+    private final IntColumns assignTo = new IntColumns();
+
+    /** base: Load(to, base, field) */
+    private final IntColumns loadTo = new IntColumns(), loadField = new IntColumns();
+
+    /** (base, field): Load(to, base, field), keyed by the ids of the pairs */
+    private final IntColumns loadToByBaseField = new IntColumns();
+
+    /** Ids of the (base, field) pairs of Load */
+    private final Map<Long, Integer> loadBaseFieldIds = Maps.newMap();
+
+    /** base: Store(base, field, from) */
+    private final IntColumns storeField = new IntColumns(), storeFrom = new IntColumns();
+
+    /** from: Store(base, field, from) */
+    private final IntColumns storeBaseByFrom = new IntColumns(),
+            storeFieldByFrom = new IntColumns();
+
+    /** base: LoadArray(to, base) */
+    private final IntColumns loadArrayTo = new IntColumns();
+
+    /** base: StoreArray(base, from) */
+    private final IntColumns storeArrayFrom = new IntColumns();
+
+    /** from: StoreArray(base, from) */
+    private final IntColumns storeArrayBase = new IntColumns();
+
+    /**
+     * Variables which are bases of instance calls.
+     */
+    private final BitSet callBases = new BitSet();
+
+    // derived relations
+    /** VarPointsTo, indexed by variable */
+    private final List<BitSet> varPointsTo = new ArrayList<>();
+
+    /** Reverse index of VarPointsTo, indexed by object */
+    private final List<BitSet> pointedBy = new ArrayList<>();
+
+    /** FieldPointsTo, keyed by (object, field) */
+    private final Map<Long, BitSet> fieldPointsTo = Maps.newMap();
+
+    /** ArrayPointsTo, indexed by array object */
+    private final List<BitSet> arrayPointsTo = new ArrayList<>();
+
+    // delta relations of current iteration
+    private Map<Integer, BitSet> deltaVarPointsTo = Maps.newMap();
+
+    private Map<Long, BitSet> deltaFieldPointsTo = Maps.newMap();
+
+    private Map<Integer, BitSet> deltaArrayPointsTo = Maps.newMap();
+
+    DatalogSolver(HeapModel heapModel) {
+        this.heapModel = heapModel;
+    }
+
+    /**
+     * Growable int lists indexed by dense int keys,
+     * i.e., one column of a relation indexed by another column.
+     */
+    private static class IntColumns {
+
+        private static final int[] EMPTY = new int[0];
+
+        private int[][] values = new int[0][];
+
+        private int[] sizes = new int[0];
+
+        void add(int key, int value) {
+            if (key >= values.length) {
+                int length = Math.max(key + 1, values.length * 2);
+                values = Arrays.copyOf(values, length);
+                sizes = Arrays.copyOf(sizes, length);
+            }
+            int[] vs = values[key];
+            if (vs == null) {
+                vs = values[key] = new int[2];
+            } else if (sizes[key] == vs.length) {
+                vs = values[key] = Arrays.copyOf(vs, vs.length * 2);
+            }
+            vs[sizes[key]++] = value;
+        }
+
+        int size(int key) {
+            return key < sizes.length ? sizes[key] : 0;
+        }
+
+        int[] get(int key) {
+            return key < values.length && values[key] != null ? values[key] : EMPTY;
+        }
+    }
+
+    /**
+     * Runs pointer analysis algorithm.
+     */
+    void solve() {
+        callGraph = new DefaultCallGraph();
+        JMethod main = World.get().getMainMethod();
+        callGraph.addEntryMethod(main);
+        addReachable(main);
+        while (!deltaVarPointsTo.isEmpty() || !deltaFieldPointsTo.isEmpty()
+                || !deltaArrayPointsTo.isEmpty()) {
+            Map<Integer, BitSet> dVar = deltaVarPointsTo;
+            Map<Long, BitSet> dField = deltaFieldPointsTo;
+            Map<Integer, BitSet> dArray = deltaArrayPointsTo;
+            deltaVarPointsTo = Maps.newMap();
+            deltaFieldPointsTo = Maps.newMap();
+            deltaArrayPointsTo = Maps.newMap();
+            dVar.forEach(this::evaluateVarDelta);
+            dField.forEach(this::evaluateFieldDelta);
+            dArray.forEach(this::evaluateArrayDelta);
+        }
+    }
+
+    /**
+     * Evaluates the rules with delta VarPointsTo(var, objects).
+     */
+    private void evaluateVarDelta(int var, BitSet delta) {
+        // Assign
+        int[] tos = assignTo.get(var);
+        for (int i = 0; i < assignTo.size(var); ++i) {
+            addVarPointsTo(tos[i], delta);
+        }
+        // Load and Store on base var
+        int[] loadTos = loadTo.get(var), loadFields = loadField.get(var);
+        int[] storeFields = storeField.get(var), storeFroms = storeFrom.get(var);
+        int[] loadArrayTos = loadArrayTo.get(var);
+        int[] storeArrayFroms = storeArrayFrom.get(var);
+        for (int o = delta.nextSetBit(0); o >= 0; o = delta.nextSetBit(o + 1)) {
+            for (int i = 0; i < loadTo.size(var); ++i) {
+                BitSet pts = fieldPointsTo.get(key(o, loadFields[i]));
+                if (pts != null) {
+                    addVarPointsTo(loadTos[i], pts);
+                }
+            }
+            for (int i = 0; i < storeField.size(var); ++i) {
+                addFieldPointsTo(o, storeFields[i], varPointsTo.get(storeFroms[i]));
+            }
+            for (int i = 0; i < loadArrayTo.size(var); ++i) {
+                BitSet pts = getArrayPointsTo(o);
+                if (!pts.isEmpty()) {
+                    addVarPointsTo(loadArrayTos[i], pts);
+                }
+            }
+            for (int i = 0; i < storeArrayFrom.size(var); ++i) {
+                addArrayPointsTo(o, varPointsTo.get(storeArrayFroms[i]));
+            }
+            if (callBases.get(var)) {
+                processCall((Var) vars.get(var), objs.get(o));
+            }
+        }
+        // Store on from var
+        int[] storeBases = storeBaseByFrom.get(var);
+        int[] storeFieldsByFrom = storeFieldByFrom.get(var);
+        for (int i = 0; i < storeBaseByFrom.size(var); ++i) {
+            BitSet bases = varPointsTo.get(storeBases[i]);
+            for (int o = bases.nextSetBit(0); o >= 0; o = bases.nextSetBit(o + 1)) {
+                addFieldPointsTo(o, storeFieldsByFrom[i], delta);
+            }
+        }
+        int[] storeArrayBases = storeArrayBase.get(var);
+        for (int i = 0; i < storeArrayBase.size(var); ++i) {
+            BitSet bases = varPointsTo.get(storeArrayBases[i]);
+            for (int o = bases.nextSetBit(0); o >= 0; o = bases.nextSetBit(o + 1)) {
+                addArrayPointsTo(o, delta);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the Load rule with delta FieldPointsTo(o, f, objects).
+     */
+    private void evaluateFieldDelta(long key, BitSet delta) {
+        int o = (int) (key >>> 32), f = (int) key;
+        BitSet bases = pointedBy.get(o);
+        for (int base = bases.nextSetBit(0); base >= 0; base = bases.nextSetBit(base + 1)) {
+            Integer baseField = loadBaseFieldIds.get(key(base, f));
+            if (baseField != null) {
+                int[] loadTos = loadToByBaseField.get(baseField);
+                for (int i = 0; i < loadToByBaseField.size(baseField); ++i) {
+                    addVarPointsTo(loadTos[i], delta);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates the LoadArray rule with delta ArrayPointsTo(o, objects).
+     */
+    private void evaluateArrayDelta(int o, BitSet delta) {
+        BitSet bases = pointedBy.get(o);
+        for (int base = bases.nextSetBit(0); base >= 0; base = bases.nextSetBit(base + 1)) {
+            int[] loadArrayTos = loadArrayTo.get(base);
+            for (int i = 0; i < loadArrayTo.size(base); ++i) {
+                addVarPointsTo(loadArrayTos[i], delta);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the VCall rule on given receiver object.
+     */
+    private void processCall(Var var, Obj recv) {
+        for (Invoke invoke : var.getInvokes()) {
+            JMethod callee = CallGraphs.resolveCallee(recv.getType(), invoke);
+            if (callee != null) {
+                BitSet recvSet = new BitSet();
+                recvSet.set(getObjId(recv));
+                addVarPointsTo(getVarId(callee.getIR().getThis()), recvSet);
+                addCallEdge(invoke, callee);
+            }
+        }
+    }
+
+    /**
+     * Adds a CallGraph fact, and derives the Assign facts
+     * between arguments/parameters and return values.
+     */
+    private void addCallEdge(Invoke invoke, JMethod callee) {
+        if (callee == null) {
+            return;
+        }
+        Edge<Invoke, JMethod> edge = new Edge<>(
+                CallGraphs.getCallKind(invoke), invoke, callee);
+        if (callGraph.addEdge(edge)) {
+            addReachable(callee);
+            IR ir = callee.getIR();
+            for (int i = 0; i < invoke.getInvokeExp().getArgCount(); ++i) {
+                addAssign(getVarId(ir.getParam(i)),
+                        getVarId(invoke.getInvokeExp().getArg(i)));
+            }
+            Var lValue = invoke.getLValue();
+            if (lValue != null) {
+                for (Var retVar : ir.getReturnVars()) {
+                    addAssign(getVarId(lValue), getVarId(retVar));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a Reachable fact, and extracts the facts of the method.
+     */
+    private void addReachable(JMethod method) {
+        if (callGraph.hasNode(method)) {
+            return;
+        }
+        callGraph.addReachableMethod(method);
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt) {
+                BitSet obj = new BitSet();
+                obj.set(getObjId(heapModel.getObj(newStmt)));
+                addVarPointsTo(getVarId(newStmt.getLValue()), obj);
+            } else if (stmt instanceof Copy copy) {
+                addAssign(getVarId(copy.getLValue()), getVarId(copy.getRValue()));
+            } else if (stmt instanceof LoadField load) {
+                JField field = load.getFieldRef().resolve();
+                if (load.isStatic()) {
+                    addAssign(getVarId(load.getLValue()), getVarId(field));
+                } else {
+                    Var base = ((InstanceFieldAccess)
+                            load.getFieldAccess()).getBase();
+                    addLoad(getVarId(load.getLValue()), getVarId(base), getFieldId(field));
+                }
+            } else if (stmt instanceof StoreField store) {
+                JField field = store.getFieldRef().resolve();
+                if (store.isStatic()) {
+                    addAssign(getVarId(field), getVarId(store.getRValue()));
+                } else {
+                    Var base = ((InstanceFieldAccess)
+                            store.getFieldAccess()).getBase();
+                    addStore(getVarId(base), getFieldId(field), getVarId(store.getRValue()));
+                }
+            } else if (stmt instanceof LoadArray load) {
+                addLoadArray(getVarId(load.getLValue()),
+                        getVarId(load.getArrayAccess().getBase()));
+            } else if (stmt instanceof StoreArray store) {
+                addStoreArray(getVarId(store.getArrayAccess().getBase()),
+                        getVarId(store.getRValue()));
+            } else if (stmt instanceof Invoke invoke) {
+                if (invoke.isStatic()) {
+                    addCallEdge(invoke, CallGraphs.resolveCallee(null, invoke));
+                } else {
+                    addVCall(getVarId(((InvokeInstanceExp) invoke.getInvokeExp()).getBase()));
+                }
+            }
+        }
+    }
+
+    private void addAssign(int to, int from) {
+        assignTo.add(from, to);
+        addVarPointsTo(to, varPointsTo.get(from));
+    }
+
+    private void addLoad(int to, int base, int field) {
+        loadTo.add(base, to);
+        loadField.add(base, field);
+        int baseField = loadBaseFieldIds.computeIfAbsent(
+                key(base, field), k -> loadBaseFieldIds.size());
+        loadToByBaseField.add(baseField, to);
+        BitSet bases = varPointsTo.get(base);
+        for (int o = bases.nextSetBit(0); o >= 0; o = bases.nextSetBit(o + 1)) {
+            BitSet pts = fieldPointsTo.get(key(o, field));
+            if (pts != null) {
+                addVarPointsTo(to, pts);
+            }
+        }
+    }
+
+    private void addStore(int base, int field, int from) {
+        storeField.add(base, field);
+        storeFrom.add(base, from);
+        storeBaseByFrom.add(from, base);
+        storeFieldByFrom.add(from, field);
+        BitSet bases = varPointsTo.get(base);
+        for (int o = bases.nextSetBit(0); o >= 0; o = bases.nextSetBit(o + 1)) {
+            addFieldPointsTo(o, field, varPointsTo.get(from));
+        }
+    }
+
+    private void addLoadArray(int to, int base) {
+        loadArrayTo.add(base, to);
+        BitSet bases = varPointsTo.get(base);
+        for (int o = bases.nextSetBit(0); o >= 0; o = bases.nextSetBit(o + 1)) {
+            addVarPointsTo(to, getArrayPointsTo(o));
+        }
+    }
+
+    private void addStoreArray(int base, int from) {
+        storeArrayFrom.add(base, from);
+        storeArrayBase.add(from, base);
+        BitSet bases = varPointsTo.get(base);
+        for (int o = bases.nextSetBit(0); o >= 0; o = bases.nextSetBit(o + 1)) {
+            addArrayPointsTo(o, varPointsTo.get(from));
+        }
+    }
+
+    private void addVCall(int base) {
+        if (!callBases.get(base)) {
+            callBases.set(base);
+            BitSet recvs = varPointsTo.get(base);
+            for (int o = recvs.nextSetBit(0); o >= 0; o = recvs.nextSetBit(o + 1)) {
+                processCall((Var) vars.get(base), objs.get(o));
+            }
+        }
+    }
+
+    /**
+     * Adds VarPointsTo facts, and records the new ones in the delta.
+     */
+    private void addVarPointsTo(int var, BitSet objSet) {
+        BitSet pts = varPointsTo.get(var);
+        BitSet diff = (BitSet) objSet.clone();
+        diff.andNot(pts);
+        if (!diff.isEmpty()) {
+            pts.or(diff);
+            deltaVarPointsTo.computeIfAbsent(var, v -> new BitSet()).or(diff);
+            for (int o = diff.nextSetBit(0); o >= 0; o = diff.nextSetBit(o + 1)) {
+                pointedBy.get(o).set(var);
+            }
+        }
+    }
+
+    private void addFieldPointsTo(int obj, int field, BitSet objSet) {
+        long key = key(obj, field);
+        BitSet pts = fieldPointsTo.computeIfAbsent(key, k -> new BitSet());
+        BitSet diff = (BitSet) objSet.clone();
+        diff.andNot(pts);
+        if (!diff.isEmpty()) {
+            pts.or(diff);
+            deltaFieldPointsTo.computeIfAbsent(key, k -> new BitSet()).or(diff);
+        }
+    }
+
+    private void addArrayPointsTo(int array, BitSet objSet) {
+        BitSet pts = getArrayPointsTo(array);
+        BitSet diff = (BitSet) objSet.clone();
+        diff.andNot(pts);
+        if (!diff.isEmpty()) {
+            pts.or(diff);
+            deltaArrayPointsTo.computeIfAbsent(array, a -> new BitSet()).or(diff);
+        }
+    }
+
+    private BitSet getArrayPointsTo(int array) {
+        return arrayPointsTo.get(array);
+    }
+
+    private static long key(int obj, int field) {
+        return ((long) obj << 32) | (field & 0xffffffffL);
+    }
+
+    private int getVarId(Object var) {
+        return varIds.computeIfAbsent(var, v -> {
+            vars.add(v);
+            varPointsTo.add(new BitSet());
+            return vars.size() - 1;
+        });
+    }
+
+    private int getObjId(Obj obj) {
+        return objIds.computeIfAbsent(obj, o -> {
+            objs.add(o);
+            pointedBy.add(new BitSet());
+            arrayPointsTo.add(new BitSet());
+            return objs.size() - 1;
+        });
+    }
+
+    private int getFieldId(JField field) {
+        return fieldIds.computeIfAbsent(field, f -> {
+            fields.add(f);
+            return fields.size() - 1;
+        });
+    }
+
+    /**
+     * Loads the derived relations back into a pointer flow graph.
+     */
+    CIPTAResult getResult() {
+        PointerFlowGraph pointerFlowGraph = new PointerFlowGraph();
+        for (int v = 0; v < vars.size(); ++v) {
+            Object var = vars.get(v);
+            Pointer pointer = var instanceof Var ?
+                    pointerFlowGraph.getVarPtr((Var) var) :
+                    pointerFlowGraph.getStaticField((JField) var);
+            addObjects(pointer, varPointsTo.get(v));
+        }
+        fieldPointsTo.forEach((key, pts) -> addObjects(
+                pointerFlowGraph.getInstanceField(objs.get((int) (key >>> 32)),
+                        fields.get((int) (long) key)), pts));
+        for (int o = 0; o < objs.size(); ++o) {
+            BitSet pts = arrayPointsTo.get(o);
+            if (!pts.isEmpty()) {
+                addObjects(pointerFlowGraph.getArrayIndex(objs.get(o)), pts);
+            }
+        }
+        return new CIPTAResult(pointerFlowGraph, callGraph);
+    }
+
+    private void addObjects(Pointer pointer, BitSet objSet) {
+        for (int o = objSet.nextSetBit(0); o >= 0; o = objSet.nextSetBit(o + 1)) {
+            pointer.getPointsToSet().addObject(objs.get(o));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.pta.ci.MethodSummary.Flow;
+import pascal.taie.analysis.pta.ci.MethodSummary.Loc;
+import pascal.taie.config.Options;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistent store of the points-to summaries of library methods.
+ * <p>
+ * The summaries are read from the summary file when it exists, and the
+ * summaries of library methods absent from the file are generated on
+ * demand by {@link SummaryGenerator}, and are written back to the file
+ * by {@link #save()}, so that later analyses of programs using the same
+ * library can reuse them. Each line of the file is the signature of a
+ * method followed by its flows, separated by tabs.
+ * <p>
+ * The summaries refer to the allocation sites by their indexes in the IR,
+ * which are only valid for the library used to generate them. Thus the
+ * first line of the file is the fingerprint of the library, and the file
+ * is discarded if it does not match the library of current program.
+ */
+class LibrarySummaries {
+
+    private static final Logger logger = LogManager.getLogger(LibrarySummaries.class);
+
+    private static final String SEP = "\t";
+
+    private static final String HEADER = "#library";
+
+    private final Path file;
+
+    private final String fingerprint = getLibraryFingerprint();
+
+    private final Map<JMethod, MethodSummary> summaries = Maps.newMap();
+
+    /**
+     * Library methods which cannot be summarized.
+     */
+    private final Set<JMethod> unsummarizable = Sets.newSet();
+
+    /**
+     * Whether new summaries have been generated since loading.
+     */
+    private boolean changed;
+
+    /**
+     * @param file       the summary file.
+     * @param regenerate if true, the existing summaries in the file are
+     *                   discarded and all summaries are generated again.
+     */
+    LibrarySummaries(Path file, boolean regenerate) {
+        this.file = file;
+        if (regenerate) {
+            changed = true;
+        } else if (Files.exists(file)) {
+            load();
+        }
+    }
+
+    private void load() {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read library summaries from " + file, e);
+        }
+        String header = HEADER + SEP + fingerprint;
+        if (lines.isEmpty() || !lines.get(0).equals(header)) {
+            logger.warn("Library summaries in {} are generated for another " +
+                    "library, generate them again", file);
+            changed = true;
+            return;
+        }
+        for (String line : lines.subList(1, lines.size())) {
+            String[] parts = line.split(SEP);
+            JMethod method = hierarchy.getMethod(parts[0]);
+            if (method == null) {
+                continue;
+            }
+            List<Flow> flows = new ArrayList<>(parts.length - 1);
+            for (int i = 1; i < parts.length && flows != null; ++i) {
+                String[] locs = parts[i].split(Flow.ARROW);
+                Loc source = Loc.parse(locs[0], hierarchy);
+                Loc target = Loc.parse(locs[1], hierarchy);
+                if (source != null && target != null) {
+                    flows.add(new Flow(source, target));
+                } else {
+                    // the library differs from the one used to generate
+                    // this summary, then the summary is generated again
+                    flows = null;
+                }
+            }
+            if (flows != null) {
+                summaries.put(method, new MethodSummary(flows));
+            }
+        }
+        logger.info("Loaded {} library summaries from {}", summaries.size(), file);
+    }
+
+    /**
+     * @return the summary of given method, or null if the method is not
+     * a library method or cannot be summarized.
+     */
+    @Nullable
+    MethodSummary get(JMethod method) {
+        if (method.getDeclaringClass().isApplication() ||
+                unsummarizable.contains(method)) {
+            return null;
+        }
+        MethodSummary summary = summaries.get(method);
+        if (summary == null) {
+            // marks the method first so that recursive calls
+            // are not summarized
+            unsummarizable.add(method);
+            summary = SummaryGenerator.generate(method, this::get);
+            if (summary != null) {
+                unsummarizable.remove(method);
+                summaries.put(method, summary);
+                changed = true;
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Writes the summaries to the summary file if new summaries
+     * have been generated.
+     */
+    void save() {
+        if (!changed) {
+            return;
+        }
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+                writer.write(HEADER + SEP + fingerprint);
+                writer.newLine();
+                List<JMethod> methods = new ArrayList<>(summaries.keySet());
+                methods.sort(Comparator.comparing(JMethod::getSignature));
+                for (JMethod method : methods) {
+                    writer.write(method.getSignature());
+                    for (Flow flow : summaries.get(method).flows()) {
+                        writer.write(SEP);
+                        writer.write(flow.toString());
+                    }
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write library summaries to " + file, e);
+        }
+        changed = false;
+        logger.info("Saved {} library summaries to {}", summaries.size(), file);
+    }
+
+    /**
+     * @return the fingerprint of the library of current program, i.e.,
+     * the digest of its Java version and the signatures of the methods
+     * of all library classes.
+     */
+    private static String getLibraryFingerprint() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AnalysisException("SHA-256 is not available", e);
+        }
+        Options options = World.get().getOptions();
+        String javaVersion = options.isPrependJVM() ?
+                Runtime.version().toString() :
+                Integer.toString(options.getJavaVersion());
+        digest.update((javaVersion + "\n").getBytes(StandardCharsets.UTF_8));
+        World.get().getClassHierarchy()
+                .allClasses()
+                .filter(c -> !c.isApplication())
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .map(JMethod::getSignature)
+                .sorted()
+                .forEach(sig -> digest.update(
+                        (sig + "\n").getBytes(StandardCharsets.UTF_8)));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
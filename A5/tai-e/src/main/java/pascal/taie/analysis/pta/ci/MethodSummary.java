@@ -0,0 +1,139 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Points-to summary of a method, i.e., the flows among the parameters,
+ * the return value, the objects allocated in the method, and the fields
+ * of them, which are the effects of the method on pointer analysis.
+ */
+record MethodSummary(List<Flow> flows) {
+
+    /**
+     * Kinds of the roots of summary locations.
+     */
+    enum Kind {
+        THIS, PARAM, RETURN, NEW
+    }
+
+    /**
+     * A location in a summary, i.e., a root which is this variable,
+     * a parameter, the return value, or an object allocated at the
+     * statement of given index, optionally followed by a field
+     * or the array index.
+     */
+    record Loc(Kind kind, int index, @Nullable JField field, boolean array) {
+
+        static Loc of(Kind kind, int index) {
+            return new Loc(kind, index, null, false);
+        }
+
+        boolean isDeref() {
+            return field != null || array;
+        }
+
+        /**
+         * @return the location of given field of this location,
+         * or of the array index if field is null.
+         */
+        Loc deref(@Nullable JField field) {
+            return new Loc(kind, index, field, field == null);
+        }
+
+        /**
+         * @return whether this location depends on the objects pointed to
+         * by this variable or a parameter, which are known during analysis.
+         */
+        boolean isDynamic() {
+            return (kind == Kind.THIS || kind == Kind.PARAM) && isDeref();
+        }
+
+        @Override
+        public String toString() {
+            String root = switch (kind) {
+                case THIS -> "this";
+                case PARAM -> "p" + index;
+                case RETURN -> "ret";
+                case NEW -> "new@" + index;
+            };
+            if (array) {
+                return root + "/[*]";
+            } else if (field != null) {
+                return root + "/" + field.getSignature();
+            } else {
+                return root;
+            }
+        }
+
+        /**
+         * Parses a location from the string returned by {@link #toString()}.
+         *
+         * @return the parsed location, or null if its field is absent.
+         */
+        @Nullable
+        static Loc parse(String s, ClassHierarchy hierarchy) {
+            int sep = s.indexOf('/');
+            String root = sep >= 0 ? s.substring(0, sep) : s;
+            Loc loc;
+            if (root.equals("this")) {
+                loc = of(Kind.THIS, 0);
+            } else if (root.equals("ret")) {
+                loc = of(Kind.RETURN, 0);
+            } else if (root.startsWith("new@")) {
+                loc = of(Kind.NEW, Integer.parseInt(root.substring(4)));
+            } else if (root.startsWith("p")) {
+                loc = of(Kind.PARAM, Integer.parseInt(root.substring(1)));
+            } else {
+                throw new IllegalArgumentException("Invalid summary location: " + s);
+            }
+            if (sep < 0) {
+                return loc;
+            }
+            String access = s.substring(sep + 1);
+            if (access.equals("[*]")) {
+                return loc.deref(null);
+            }
+            JField field = hierarchy.getField(access);
+            return field != null ? loc.deref(field) : null;
+        }
+    }
+
+    /**
+     * A flow from the objects at source to target.
+     */
+    record Flow(Loc source, Loc target) {
+
+        static final String ARROW = " => ";
+
+        @Override
+        public String toString() {
+            return source + ARROW + target;
+        }
+    }
+}
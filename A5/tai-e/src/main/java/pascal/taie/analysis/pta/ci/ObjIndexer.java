@@ -0,0 +1,72 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbers objects by consecutive integers from 0 in the order
+ * they are first indexed. Frozen points-to sets store the numbers
+ * of their objects instead of the objects.
+ */
+class ObjIndexer {
+
+    private final List<Obj> objs = new ArrayList<>();
+
+    private final Map<Obj, Integer> ids = Maps.newMap();
+
+    /**
+     * @return the number of given object, which is numbered if absent.
+     */
+    int getIndex(Obj obj) {
+        return ids.computeIfAbsent(obj, o -> {
+            objs.add(o);
+            return objs.size() - 1;
+        });
+    }
+
+    /**
+     * @return the number of given object, or -1 if it has not been numbered.
+     */
+    int indexOf(Obj obj) {
+        Integer id = ids.get(obj);
+        return id != null ? id : -1;
+    }
+
+    Obj getObject(int index) {
+        return objs.get(index);
+    }
+
+    /**
+     * @return all numbered objects, indexed by their numbers.
+     */
+    List<Obj> getObjects() {
+        return Collections.unmodifiableList(objs);
+    }
+}
@@ -29,9 +29,35 @@ package pascal.taie.analysis.pta.ci;
  */
 abstract class Pointer {
 
-    private final PointsToSet pointsToSet = new PointsToSet();
+    private PointsToSet pointsToSet = new PointsToSet();
+
+    /**
+     * Id of this pointer in its pointer flow graph.
+     */
+    private int id = -1;
 
     PointsToSet getPointsToSet() {
         return pointsToSet;
     }
+
+    /**
+     * Freezes the points-to set of this pointer, and replaces it by the
+     * frozen set with the same objects in given table if there is one.
+     */
+    void freezePointsToSet(ObjIndexer objIndexer, PointsToSet.Table table) {
+        pointsToSet.freeze(objIndexer);
+        pointsToSet = table.intern(pointsToSet);
+    }
+
+    /**
+     * @return the id of this pointer. The pointers in a pointer flow graph
+     * are numbered by consecutive integers from 0 in creation order.
+     */
+    int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
 }
@@ -25,29 +25,63 @@ package pascal.taie.analysis.pta.ci;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
-import pascal.taie.util.collection.Sets;
-import pascal.taie.util.collection.TwoKeyMap;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Represents pointer flow graph in pointer analysis.
+ * <p>
+ * Every pointer is numbered by an int id, and the tables of pointers
+ * and edges are indexed by the ids instead of hashing the pointers:
+ * <ul>
+ *     <li>The variables of a method are assigned a contiguous range of
+ *     slots, so a Var node is found by the offset of its method plus
+ *     {@link Var#getIndex()}.</li>
+ *     <li>Objects are numbered as well, and InstanceField and ArrayIndex
+ *     nodes are found via the number of their base object.</li>
+ *     <li>The successors of each pointer are kept in a growable int array.</li>
+ * </ul>
+ * Once the analysis finishes, {@link #freeze()} releases the edges and the
+ * tables of InstanceField and ArrayIndex nodes, which are only used for
+ * solving. The nodes of given objects are then looked up via an index
+ * built on the first query.
  */
 class PointerFlowGraph {
 
+    private static final int[] NO_SUCCS = new int[0];
+
+    /**
+     * Out-degree above which the successors of a pointer are indexed
+     * by a bit set for duplicate checking, instead of a linear scan.
+     */
+    private static final int SCAN_LIMIT = 16;
+
+    /**
+     * All pointers in this PFG, indexed by their ids.
+     */
+    private final List<Pointer> pointers = new ArrayList<>();
+
     /**
-     * Set of all pointer in this PFG.
+     * Offset of the first Var node slot of each method.
      */
-    private final Set<Pointer> pointers = Sets.newSet();
+    private final Map<JMethod, Integer> methodOffsets = new IdentityHashMap<>();
 
     /**
-     * Map from Variable to Var node.
+     * Var nodes indexed by method offset plus variable index.
      */
-    private final Map<Var, VarPtr> varPtrs = Maps.newMap();
+    private VarPtr[] varPtrs = new VarPtr[1024];
+
+    private int nextVarSlot;
 
     /**
      * Map from JField to StaticField node.
@@ -55,69 +89,168 @@ class PointerFlowGraph {
     private final Map<JField, StaticField> staticFields = Maps.newMap();
 
     /**
-     * Map from (Obj, Field) to InstanceField node.
+     * Numbers of the objects which are bases of InstanceField
+     * or ArrayIndex nodes.
+     */
+    private Map<Obj, Integer> objIds = Maps.newMap();
+
+    /**
+     * InstanceField nodes of each object, indexed by object number.
+     */
+    private List<Map<JField, InstanceField>> instanceFields = new ArrayList<>();
+
+    /**
+     * ArrayIndex node of each object, indexed by object number.
+     */
+    private List<ArrayIndex> arrayIndexes = new ArrayList<>();
+
+    /**
+     * Successor ids of each pointer, indexed by pointer id. Only the first
+     * {@code succCounts[id]} elements of each array are valid.
      */
-    private final TwoKeyMap<Obj, JField, InstanceField> instanceFields = Maps.newTwoKeyMap();
+    private int[][] succs = new int[1024][];
+
+    private int[] succCounts = new int[1024];
 
     /**
-     * Map from Obj (array) to ArrayIndex node.
+     * Bit sets of successor ids for the pointers with large out-degree.
      */
-    private final Map<Obj, ArrayIndex> arrayIndexes = Maps.newMap();
+    private Map<Integer, BitSet> succSets = Maps.newMap();
+
+    private boolean frozen;
 
     /**
-     * Map from a pointer (node) to its successors in PFG.
+     * InstanceField and ArrayIndex nodes of each base object after
+     * {@link #freeze()}, or null if no such node has been queried.
      */
-    private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
+    private MultiMap<Obj, Pointer> frozenFields;
 
     /**
      * Returns all pointers in this PFG.
      */
-    Set<Pointer> getPointers() {
-        return Collections.unmodifiableSet(pointers);
+    List<Pointer> getPointers() {
+        return Collections.unmodifiableList(pointers);
+    }
+
+    /**
+     * @return the pointer of given id.
+     */
+    Pointer getPointer(int id) {
+        return pointers.get(id);
+    }
+
+    /**
+     * @return the number of pointers in this PFG.
+     */
+    int getNumberOfPointers() {
+        return pointers.size();
+    }
+
+    private <P extends Pointer> P addPointer(P pointer) {
+        pointer.setId(pointers.size());
+        pointers.add(pointer);
+        return pointer;
     }
 
     /**
      * @return the corresponding Var node for the given variable.
+     * After {@link #freeze()}, returns null if the node is absent.
      */
     VarPtr getVarPtr(Var var) {
-        return varPtrs.computeIfAbsent(var, v -> {
-            VarPtr varPtr = new VarPtr(v);
-            pointers.add(varPtr);
-            return varPtr;
-        });
+        Integer offset = methodOffsets.get(var.getMethod());
+        if (offset == null) {
+            if (frozen) {
+                return null;
+            }
+            offset = nextVarSlot;
+            methodOffsets.put(var.getMethod(), offset);
+            nextVarSlot += var.getMethod().getIR().getVars().size();
+            if (nextVarSlot > varPtrs.length) {
+                varPtrs = Arrays.copyOf(varPtrs,
+                        Math.max(nextVarSlot, varPtrs.length * 2));
+            }
+        }
+        int slot = offset + var.getIndex();
+        VarPtr varPtr = varPtrs[slot];
+        if (varPtr == null && !frozen) {
+            varPtr = addPointer(new VarPtr(var));
+            varPtrs[slot] = varPtr;
+        }
+        return varPtr;
     }
 
     /**
      * @return the corresponding StaticField node for the given static field.
+     * After {@link #freeze()}, returns null if the node is absent.
      */
     StaticField getStaticField(JField field) {
-        return staticFields.computeIfAbsent(field, f -> {
-            StaticField staticField = new StaticField(f);
-            pointers.add(staticField);
-            return staticField;
-        });
+        if (frozen) {
+            return staticFields.get(field);
+        }
+        return staticFields.computeIfAbsent(field,
+                f -> addPointer(new StaticField(f)));
     }
 
     /**
      * @return the corresponding InstanceField node for the given object
-     * and instance field.
+     * and instance field. After {@link #freeze()}, returns null
+     * if the node is absent.
      */
     InstanceField getInstanceField(Obj base, JField field) {
-        return instanceFields.computeIfAbsent(base, field, (b, f) -> {
-                InstanceField instanceField = new InstanceField(b, f);
-                pointers.add(instanceField);
-                return instanceField;
-            });
+        if (frozen) {
+            for (Pointer pointer : getFrozenFields().get(base)) {
+                if (pointer instanceof InstanceField instanceField &&
+                        instanceField.getField().equals(field)) {
+                    return instanceField;
+                }
+            }
+            return null;
+        }
+        return instanceFields.get(getObjId(base)).computeIfAbsent(field,
+                f -> addPointer(new InstanceField(base, f)));
     }
 
     /**
      * @return the corresponding ArrayIndex node for the given array object.
+     * After {@link #freeze()}, returns null if the node is absent.
      */
     ArrayIndex getArrayIndex(Obj array) {
-        return arrayIndexes.computeIfAbsent(array, a -> {
-            ArrayIndex arrayIndex = new ArrayIndex(a);
-            pointers.add(arrayIndex);
-            return arrayIndex;
+        if (frozen) {
+            for (Pointer pointer : getFrozenFields().get(array)) {
+                if (pointer instanceof ArrayIndex arrayIndex) {
+                    return arrayIndex;
+                }
+            }
+            return null;
+        }
+        int objId = getObjId(array);
+        ArrayIndex arrayIndex = arrayIndexes.get(objId);
+        if (arrayIndex == null) {
+            arrayIndex = addPointer(new ArrayIndex(array));
+            arrayIndexes.set(objId, arrayIndex);
+        }
+        return arrayIndex;
+    }
+
+    private MultiMap<Obj, Pointer> getFrozenFields() {
+        if (frozenFields == null) {
+            frozenFields = Maps.newMultiMap();
+            for (Pointer pointer : pointers) {
+                if (pointer instanceof InstanceField instanceField) {
+                    frozenFields.put(instanceField.getBase(), pointer);
+                } else if (pointer instanceof ArrayIndex arrayIndex) {
+                    frozenFields.put(arrayIndex.getArray(), pointer);
+                }
+            }
+        }
+        return frozenFields;
+    }
+
+    private int getObjId(Obj obj) {
+        return objIds.computeIfAbsent(obj, o -> {
+            instanceFields.add(Maps.newHybridMap());
+            arrayIndexes.add(null);
+            return objIds.size();
         });
     }
 
@@ -128,13 +261,89 @@ class PointerFlowGraph {
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        if (frozen) {
+            throw new IllegalStateException("Pointer flow graph is frozen");
+        }
+        int s = source.getId(), t = target.getId();
+        if (s >= succs.length) {
+            int length = Math.max(s + 1, succs.length * 2);
+            succs = Arrays.copyOf(succs, length);
+            succCounts = Arrays.copyOf(succCounts, length);
+        }
+        int[] ts = succs[s];
+        int count = succCounts[s];
+        if (count > SCAN_LIMIT) {
+            BitSet set = succSets.get(s);
+            if (set.get(t)) {
+                return false;
+            }
+            set.set(t);
+        } else {
+            for (int i = 0; i < count; ++i) {
+                if (ts[i] == t) {
+                    return false;
+                }
+            }
+            if (count == SCAN_LIMIT) {
+                BitSet set = new BitSet();
+                for (int i = 0; i < count; ++i) {
+                    set.set(ts[i]);
+                }
+                set.set(t);
+                succSets.put(s, set);
+            }
+        }
+        if (ts == null) {
+            ts = new int[2];
+        } else if (count == ts.length) {
+            ts = Arrays.copyOf(ts, count * 2);
+        }
+        ts[count] = t;
+        succs[s] = ts;
+        succCounts[s] = count + 1;
+        return true;
     }
 
     /**
      * @return successors of given pointer in the PFG.
+     * Not available after {@link #freeze()}.
+     */
+    List<Pointer> getSuccsOf(Pointer pointer) {
+        if (frozen) {
+            throw new IllegalStateException(
+                    "Edges of frozen pointer flow graph are released");
+        }
+        int id = pointer.getId();
+        int[] ts = id < succs.length && succs[id] != null ? succs[id] : NO_SUCCS;
+        int size = id < succCounts.length ? succCounts[id] : 0;
+        return new AbstractList<>() {
+            @Override
+            public Pointer get(int index) {
+                return pointers.get(ts[index]);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Releases the edges and the structures which are only used for
+     * solving. No edge or node can be added after this call.
      */
-    Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+    void freeze() {
+        if (frozen) {
+            return;
+        }
+        frozen = true;
+        succs = null;
+        succCounts = null;
+        succSets = null;
+        objIds = null;
+        instanceFields = null;
+        arrayIndexes = null;
+        varPtrs = Arrays.copyOf(varPtrs, nextVarSlot);
     }
 }
@@ -23,19 +23,42 @@
 package pascal.taie.analysis.pta.ci;
 
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.Sets;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.stream.Stream;
 
 /**
  * Represents of points-to sets.
+ * <p>
+ * A points-to set is mutable during the analysis, and is frozen by
+ * {@link #freeze(ObjIndexer)} when the analysis finishes. A frozen set
+ * only keeps the sorted numbers of its objects and cannot be modified,
+ * thus the pointers with the same objects can share one frozen set via
+ * a {@link Table}.
  */
 class PointsToSet implements Iterable<Obj> {
 
-    private final Set<Obj> set = Sets.newHybridSet();
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Objects of this set, or null after this set is frozen.
+     */
+    private Set<Obj> set = Sets.newHybridSet();
+
+    /**
+     * Sorted numbers of the objects after this set is frozen.
+     */
+    private int[] objIds;
+
+    private ObjIndexer objIndexer;
 
     /**
      * Constructs an empty points-to set.
@@ -57,51 +80,174 @@ class PointsToSet implements Iterable<Obj> {
      * otherwise false.
      */
     boolean addObject(Obj obj) {
+        checkMutable();
         return set.add(obj);
     }
 
+    /**
+     * Adds all objects in given set to this set.
+     *
+     * @return true if this points-to set changed as a result of the call,
+     * otherwise false.
+     */
+    boolean addAll(PointsToSet pts) {
+        checkMutable();
+        return pts.set != null ? set.addAll(pts.set) : set.addAll(pts.getObjects());
+    }
+
+    private void checkMutable() {
+        if (set == null) {
+            throw new IllegalStateException("Points-to set is frozen");
+        }
+    }
+
+    /**
+     * Converts this set to the sorted numbers of its objects given by
+     * {@code objIndexer}, and releases the mutable set.
+     * No object can be added after this call.
+     */
+    void freeze(ObjIndexer objIndexer) {
+        if (set == null) {
+            return;
+        }
+        if (set.isEmpty()) {
+            objIds = EMPTY;
+        } else {
+            objIds = new int[set.size()];
+            int i = 0;
+            for (Obj obj : set) {
+                objIds[i++] = objIndexer.getIndex(obj);
+            }
+            Arrays.sort(objIds);
+        }
+        this.objIndexer = objIndexer;
+        set = null;
+    }
+
+    /**
+     * Table of frozen points-to sets, which maps each frozen set to
+     * the first frozen set with the same objects.
+     */
+    static class Table {
+
+        private final Map<ObjIds, PointsToSet> sets = Maps.newMap();
+
+        /**
+         * @return the frozen set in this table with the same objects as
+         * the given frozen set, or the given set if there is no such set.
+         */
+        PointsToSet intern(PointsToSet pts) {
+            if (pts.objIds == null) {
+                throw new IllegalStateException("Points-to set is not frozen");
+            }
+            return sets.computeIfAbsent(new ObjIds(pts.objIds), k -> pts);
+        }
+
+        /**
+         * @return the number of distinct frozen sets in this table.
+         */
+        int size() {
+            return sets.size();
+        }
+    }
+
+    private record ObjIds(int[] ids) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ObjIds other && Arrays.equals(ids, other.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(ids);
+        }
+    }
+
     /**
      * @return true if this points-to set contains the given object, otherwise false.
      */
     boolean contains(Obj obj) {
-        return set.contains(obj);
+        if (set != null) {
+            return set.contains(obj);
+        }
+        int id = objIndexer.indexOf(obj);
+        return id >= 0 && Arrays.binarySearch(objIds, id) >= 0;
     }
 
     /**
      * @return whether this set if empty.
      */
     boolean isEmpty() {
-        return set.isEmpty();
+        return size() == 0;
     }
 
     /**
      * @return the number of objects in this set.
      */
     int size() {
-        return set.size();
+        return set != null ? set.size() : objIds.length;
     }
 
     /**
      * @return all objects in this set.
      */
     Stream<Obj> objects() {
-        return set.stream();
+        return set != null ? set.stream() :
+                Arrays.stream(objIds).mapToObj(objIndexer::getObject);
     }
 
     /**
      * @return all objects in this set.
      */
     Set<Obj> getObjects() {
-        return Collections.unmodifiableSet(set);
+        if (set != null) {
+            return Collections.unmodifiableSet(set);
+        }
+        return new AbstractSet<>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Obj obj && PointsToSet.this.contains(obj);
+            }
+
+            @Override
+            public Iterator<Obj> iterator() {
+                return PointsToSet.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return objIds.length;
+            }
+        };
     }
 
     @Override
     public Iterator<Obj> iterator() {
-        return set.iterator();
+        if (set != null) {
+            return set.iterator();
+        }
+        return new Iterator<>() {
+
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < objIds.length;
+            }
+
+            @Override
+            public Obj next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return objIndexer.getObject(objIds[next++]);
+            }
+        };
     }
 
     @Override
     public String toString() {
-        return set.toString();
+        return set != null ? set.toString() : getObjects().toString();
     }
 }
@@ -38,13 +38,16 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
 
 import static pascal.taie.util.collection.CollectionUtils.sum;
 
@@ -77,6 +80,7 @@ class ResultProcessor {
         switch (action) {
             case "dump" -> dumpPointsToSet(result, file);
             case "compare" -> comparePointsToSet(result, file);
+            case "compare-sound" -> checkSoundness(result, file);
         }
     }
 
@@ -177,6 +181,39 @@ class ResultProcessor {
         }
     }
 
+    /**
+     * Checks that the result over-approximates the given one, i.e., each
+     * given points-to set is a subset of the points-to set of the same
+     * pointer in the result. This is used for the solvers which are less
+     * precise than {@link Solver}, e.g., {@link SteensgaardSolver}.
+     */
+    private void checkSoundness(CIPTAResult result, String input) {
+        logger.info("Checking points-to set against {} ...", input);
+        Map<String, Pointer> pointers = new LinkedHashMap<>();
+        result.getPointerFlowGraph().getPointers()
+                .forEach(p -> pointers.put(p.toString(), p));
+        List<String> mismatches = new ArrayList<>();
+        readPointsToSets(input).forEach((pointerStr, expected) -> {
+            Pointer pointer = pointers.get(pointerStr);
+            Set<String> given = pointer == null ? Set.of() :
+                    pointer.getPointsToSet().objects()
+                            .map(Object::toString)
+                            .collect(Collectors.toSet());
+            String objs = expected.substring(1, expected.length() - 1);
+            boolean missing = !objs.isEmpty() && Arrays.stream(objs.split(", "))
+                    .anyMatch(Predicate.not(given::contains));
+            if (missing) {
+                mismatches.add(String.format("%s, expected: %s, given: %s",
+                        pointerStr, expected,
+                        pointer == null ? null : toString(pointer.getPointsToSet())));
+            }
+        });
+        if (!mismatches.isEmpty()) {
+            throw new AnalysisException("Unsound points-to set\n" +
+                    String.join("\n", mismatches));
+        }
+    }
+
     private static Map<String, String> readPointsToSets(String input) {
         try {
             Map<String, String> result = new LinkedHashMap<>();
@@ -29,15 +29,27 @@ import pascal.taie.analysis.graph.callgraph.CallGraphs;
 import pascal.taie.analysis.graph.callgraph.CallKind;
 import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
 import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.ci.MethodSummary.Flow;
+import pascal.taie.analysis.pta.ci.MethodSummary.Kind;
+import pascal.taie.analysis.pta.ci.MethodSummary.Loc;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -46,6 +58,24 @@ class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Default number of work-list entries processed between two checks
+     * of whether a checkpoint is due.
+     */
+    private static final int DEFAULT_CHECKPOINT_CHECK_INTERVAL = 10_000;
+
+    /**
+     * Default interval (in seconds) between two checkpoints.
+     */
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 600;
+
+    /**
+     * File name of the checkpoints in checkpoint directory.
+     */
+    private static final String CHECKPOINT_NAME = "cipta.ckpt";
+
+    private final AnalysisOptions options;
+
     private final HeapModel heapModel;
 
     private DefaultCallGraph callGraph;
@@ -58,8 +88,33 @@ class Solver {
 
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    /**
+     * Summaries of library methods, or null if summaries are not used.
+     */
+    @Nullable
+    private final LibrarySummaries summaries;
+
+    /**
+     * Reachable methods which are analyzed via their summaries
+     * instead of their statements.
+     */
+    private final Set<JMethod> summarizedMethods = Sets.newSet();
+
+    /**
+     * Summary flows which depend on the objects pointed to by
+     * this variable or parameters of summarized methods.
+     */
+    private final MultiMap<Var, Flow> summaryFlows = Maps.newMultiMap();
+
+    private CheckpointWriter checkpointWriter;
+
+    private int checkpointCheckInterval;
+
+    Solver(AnalysisOptions options, HeapModel heapModel,
+           @Nullable LibrarySummaries summaries) {
+        this.options = options;
         this.heapModel = heapModel;
+        this.summaries = summaries;
     }
 
     /**
@@ -68,6 +123,9 @@ class Solver {
     void solve() {
         initialize();
         analyze();
+        if (checkpointWriter != null) {
+            checkpointWriter.close();
+        }
     }
 
     /**
@@ -83,6 +141,50 @@ class Solver {
         JMethod main = World.get().getMainMethod();
         callGraph.addEntryMethod(main);
         addReachable(main);
+        String resumeFrom = options.getString("resume-from");
+        if (resumeFrom != null) {
+            resume(Path.of(resumeFrom, CHECKPOINT_NAME));
+        }
+        String checkpointDir = options.getString("checkpoint");
+        if (checkpointDir != null) {
+            int interval = options.get("checkpoint-interval") instanceof Integer n ?
+                    n : DEFAULT_CHECKPOINT_INTERVAL;
+            checkpointCheckInterval =
+                    options.get("checkpoint-check-interval") instanceof Integer n ?
+                            n : DEFAULT_CHECKPOINT_CHECK_INTERVAL;
+            if (checkpointCheckInterval <= 0) {
+                throw new ConfigException("Invalid checkpoint-check-interval: " +
+                        checkpointCheckInterval);
+            }
+            checkpointWriter = new CheckpointWriter(
+                    Path.of(checkpointDir, CHECKPOINT_NAME), interval);
+        }
+    }
+
+    /**
+     * Seeds the solver with the state in given checkpoint. As the state
+     * is a part of the final result, solving from the seeded state
+     * reaches the same result as solving from scratch.
+     */
+    private void resume(Path file) {
+        if (!Files.exists(file)) {
+            logger.info("No checkpoint at {}, solve from scratch", file);
+            return;
+        }
+        CheckpointReader.Checkpoint checkpoint =
+                CheckpointReader.read(file, pointerFlowGraph, heapModel);
+        if (checkpoint == null) {
+            logger.warn("Checkpoint {} does not match current program, " +
+                    "solve from scratch", file);
+            return;
+        }
+        checkpoint.reachableMethods().forEach(this::addReachable);
+        checkpoint.callEdges().forEach(this::addCallEdge);
+        checkpoint.entries().forEach(entry ->
+                workList.addEntry(entry.pointer(), entry.pointsToSet()));
+        logger.info("Resumed from {}: {} reachable methods, {} call edges, " +
+                        "{} points-to entries", file, checkpoint.reachableMethods().size(),
+                checkpoint.callEdges().size(), checkpoint.entries().size());
     }
 
     /**
@@ -92,6 +194,13 @@ class Solver {
         // TODO - finish me
         if (!callGraph.hasNode(method)) {
             callGraph.addReachableMethod(method);
+            MethodSummary summary = summaries != null ?
+                    summaries.get(method) : null;
+            if (summary != null) {
+                summarizedMethods.add(method);
+                applySummary(method, summary);
+                return;
+            }
             List<Stmt> stmts = method.getIR().getStmts();
 
             for (Stmt stmt : stmts) {
@@ -100,6 +209,72 @@ class Solver {
         }
     }
 
+    /**
+     * Applies the summary of a new reachable method. The flows which
+     * depend on the objects pointed to by the variables of the method
+     * are applied when the objects are propagated to the variables.
+     */
+    private void applySummary(JMethod method, MethodSummary summary) {
+        IR ir = method.getIR();
+        for (Flow flow : summary.flows()) {
+            Loc dynamic = flow.source().isDynamic() ? flow.source() :
+                    flow.target().isDynamic() ? flow.target() : null;
+            if (dynamic != null) {
+                Var root = dynamic.kind() == Kind.THIS ?
+                        ir.getThis() : ir.getParam(dynamic.index());
+                summaryFlows.put(root, flow);
+                pointerFlowGraph.getVarPtr(root).getPointsToSet()
+                        .forEach(obj -> applySummaryFlow(ir, flow, obj));
+            } else {
+                applySummaryFlow(ir, flow, null);
+            }
+        }
+    }
+
+    /**
+     * Applies a summary flow.
+     *
+     * @param base the object pointed to by the root variable of the
+     *             dynamic location of the flow, or null if the flow
+     *             has no dynamic location.
+     */
+    private void applySummaryFlow(IR ir, Flow flow, @Nullable Obj base) {
+        Loc source = flow.source();
+        List<Pointer> targets = getSummaryPointers(ir, flow.target(), base);
+        if (source.kind() == Kind.NEW && !source.isDeref()) {
+            PointsToSet pts = new PointsToSet(
+                    heapModel.getObj((New) ir.getStmt(source.index())));
+            targets.forEach(target -> workList.addEntry(target, pts));
+        } else {
+            Pointer sourcePtr = getSummaryPointers(ir, source, base).get(0);
+            targets.forEach(target -> addPFGEdge(sourcePtr, target));
+        }
+    }
+
+    /**
+     * @return the pointers at given summary location.
+     */
+    private List<Pointer> getSummaryPointers(IR ir, Loc loc, @Nullable Obj base) {
+        if (loc.kind() == Kind.RETURN) {
+            return ir.getReturnVars()
+                    .stream()
+                    .map(v -> (Pointer) pointerFlowGraph.getVarPtr(v))
+                    .toList();
+        }
+        if (loc.kind() == Kind.NEW) {
+            // NEW locations without field are handled by applySummaryFlow()
+            base = heapModel.getObj((New) ir.getStmt(loc.index()));
+        } else if (!loc.isDeref()) {
+            Var var = loc.kind() == Kind.THIS ? ir.getThis() : ir.getParam(loc.index());
+            return List.of(pointerFlowGraph.getVarPtr(var));
+        }
+        if (loc.array()) {
+            return List.of(pointerFlowGraph.getArrayIndex(base));
+        } else {
+            return List.of(pointerFlowGraph.getInstanceField(base, loc.field()));
+        }
+    }
+
     /**
      * Processes statements in new reachable methods.
      */
@@ -147,11 +322,7 @@ class Solver {
         public Void visit(Invoke stmt) {
             if (stmt.isStatic()) {
                 JMethod targetMethod = resolveCallee(null, stmt);
-                Edge<Invoke, JMethod> edge = new Edge<>(getCallKind(stmt), stmt, targetMethod);
-                if (callGraph.addEdge(edge)) {
-                    addReachable(targetMethod);
-                    passArgsToParamsAndRetVar(stmt, targetMethod);
-                }
+                addCallEdge(new Edge<>(getCallKind(stmt), stmt, targetMethod));
             }
             return null;
         }
@@ -172,7 +343,13 @@ class Solver {
      */
     private void analyze() {
         // TODO - finish me
+        long processed = 0;
         while (!workList.isEmpty()) {
+            if (checkpointWriter != null &&
+                    ++processed % checkpointCheckInterval == 0 &&
+                    checkpointWriter.isDue()) {
+                checkpointWriter.write(callGraph, pointerFlowGraph, workList.getEntries());
+            }
             WorkList.Entry entry = workList.pollEntry();
             Pointer pointer = entry.pointer();
             PointsToSet pointsToSet = entry.pointsToSet();
@@ -180,6 +357,14 @@ class Solver {
             PointsToSet deltaPTS = propagate(pointer, pointsToSet);
             if (pointer instanceof VarPtr) {
                 Var v = ((VarPtr) pointer).getVar();
+                if (summarizedMethods.contains(v.getMethod())) {
+                    // statements of summarized methods are not processed
+                    IR ir = v.getMethod().getIR();
+                    for (Flow flow : summaryFlows.get(v)) {
+                        deltaPTS.forEach(obj -> applySummaryFlow(ir, flow, obj));
+                    }
+                    continue;
+                }
                 for (Obj obj : deltaPTS.getObjects()) {
                     // handle load
                     List<LoadField> loadFields = v.getLoadFields();
@@ -239,7 +424,7 @@ class Solver {
             for (Obj obj : deltaObjs) {
                 pointer.getPointsToSet().addObject(obj);
             }
-            Set<Pointer> succsOf = pointerFlowGraph.getSuccsOf(pointer);
+            List<Pointer> succsOf = pointerFlowGraph.getSuccsOf(pointer);
             for (Pointer succ : succsOf) {
                 workList.addEntry(succ, deltaPTS);
             }
@@ -261,11 +446,17 @@ class Solver {
             Var MThis = targetMethod.getIR().getThis();
             workList.addEntry(pointerFlowGraph.getVarPtr(MThis), new PointsToSet(recv));
 
-            Edge<Invoke, JMethod> edge = new Edge<>(getCallKind(invoke), invoke, targetMethod);
-            if (callGraph.addEdge(edge)) {
-                addReachable(targetMethod);
-                passArgsToParamsAndRetVar(invoke, targetMethod);
-            }
+            addCallEdge(new Edge<>(getCallKind(invoke), invoke, targetMethod));
+        }
+    }
+
+    /**
+     * Adds a call edge, and processes the callee if the edge is new.
+     */
+    private void addCallEdge(Edge<Invoke, JMethod> edge) {
+        if (callGraph.addEdge(edge)) {
+            addReachable(edge.getCallee());
+            passArgsToParamsAndRetVar(edge.getCallSite(), edge.getCallee());
         }
     }
 
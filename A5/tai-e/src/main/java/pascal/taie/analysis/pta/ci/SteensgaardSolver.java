@@ -0,0 +1,434 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.*;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Unification-based (Steensgaard-style) pointer analysis.
+ * <p>
+ * Instead of propagating points-to sets along the edges of a pointer flow
+ * graph, each assignment unifies the pointers on its two sides into one
+ * equivalence class via union-find, so all pointers in a class share
+ * a points-to set. Each class also has one node per field for the fields
+ * of the objects it points to, and one node for their array elements,
+ * which are unified recursively when classes merge. The analysis is
+ * less precise than {@link Solver}, but runs in near-linear time.
+ */
+class SteensgaardSolver {
+
+    private final HeapModel heapModel;
+
+    private DefaultCallGraph callGraph;
+
+    private StmtProcessor stmtProcessor;
+
+    private final Map<Var, Node> varNodes = Maps.newMap();
+
+    private final Map<JField, Node> staticFieldNodes = Maps.newMap();
+
+    /**
+     * All nodes created by this solver.
+     */
+    private final List<Node> nodes = new ArrayList<>();
+
+    /**
+     * Pairs of nodes to be unified.
+     */
+    private final Queue<Node[]> unifyQueue = new ArrayDeque<>();
+
+    /**
+     * Classes whose points-to sets or receiver variables changed,
+     * so that their calls need to be processed.
+     */
+    private final Queue<Node> changedNodes = new ArrayDeque<>();
+
+    SteensgaardSolver(HeapModel heapModel) {
+        this.heapModel = heapModel;
+    }
+
+    /**
+     * Equivalence class of pointers, i.e., a node of union-find.
+     */
+    private static class Node {
+
+        private Node parent = this;
+
+        private int rank;
+
+        /**
+         * Points-to set of the pointers in this class.
+         * Valid only if this node is the representative.
+         */
+        private Set<Obj> objs = Sets.newHybridSet();
+
+        /**
+         * Objects in {@link #objs} in the order they are added.
+         */
+        private List<Obj> objList = new ArrayList<>();
+
+        /**
+         * Nodes of the fields of the objects pointed to by this class.
+         */
+        private Map<JField, Node> fields = Maps.newHybridMap();
+
+        /**
+         * Node of the array elements of the objects pointed to by this class.
+         */
+        private Node elems;
+
+        /**
+         * Variables in this class which are receivers of instance calls.
+         */
+        private List<Var> recvVars = new ArrayList<>();
+
+        /**
+         * The calls on the first {@code processedObjs} objects of
+         * {@link #objList} via the first {@code processedVars} variables
+         * of {@link #recvVars} have been processed.
+         */
+        private int processedVars;
+
+        private int processedObjs;
+
+        private boolean hasUnprocessedCalls() {
+            return processedVars < recvVars.size() ||
+                    processedObjs < objList.size();
+        }
+    }
+
+    /**
+     * Runs pointer analysis algorithm.
+     */
+    void solve() {
+        callGraph = new DefaultCallGraph();
+        stmtProcessor = new StmtProcessor();
+        JMethod main = World.get().getMainMethod();
+        callGraph.addEntryMethod(main);
+        addReachable(main);
+        analyze();
+    }
+
+    /**
+     * Processes new reachable method.
+     */
+    private void addReachable(JMethod method) {
+        if (!callGraph.hasNode(method)) {
+            callGraph.addReachableMethod(method);
+            method.getIR().getStmts().forEach(s -> s.accept(stmtProcessor));
+        }
+    }
+
+    /**
+     * Processes statements in new reachable methods.
+     */
+    private class StmtProcessor implements StmtVisitor<Void> {
+
+        @Override
+        public Void visit(New stmt) {
+            Node node = find(getVarNode(stmt.getLValue()));
+            Obj obj = heapModel.getObj(stmt);
+            if (node.objs.add(obj)) {
+                node.objList.add(obj);
+                changedNodes.add(node);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) {
+            unify(getVarNode(stmt.getLValue()), getVarNode(stmt.getRValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) {
+            Node field = stmt.isStatic() ?
+                    getStaticFieldNode(stmt.getFieldRef().resolve()) :
+                    getFieldNode(getVarNode(((InstanceFieldAccess) stmt.getFieldAccess())
+                            .getBase()), stmt.getFieldRef().resolve());
+            unify(getVarNode(stmt.getLValue()), field);
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreField stmt) {
+            Node field = stmt.isStatic() ?
+                    getStaticFieldNode(stmt.getFieldRef().resolve()) :
+                    getFieldNode(getVarNode(((InstanceFieldAccess) stmt.getFieldAccess())
+                            .getBase()), stmt.getFieldRef().resolve());
+            unify(field, getVarNode(stmt.getRValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadArray stmt) {
+            unify(getVarNode(stmt.getLValue()),
+                    getElemsNode(getVarNode(stmt.getArrayAccess().getBase())));
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreArray stmt) {
+            unify(getElemsNode(getVarNode(stmt.getArrayAccess().getBase())),
+                    getVarNode(stmt.getRValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(Invoke stmt) {
+            if (stmt.isStatic()) {
+                processCallEdge(stmt, CallGraphs.resolveCallee(null, stmt));
+            } else {
+                Var base = ((InvokeInstanceExp) stmt.getInvokeExp()).getBase();
+                Node node = find(getVarNode(base));
+                if (!base.getInvokes().isEmpty() && !node.recvVars.contains(base)) {
+                    node.recvVars.add(base);
+                    changedNodes.add(node);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Processes unifications and calls until reaching the fixed point.
+     */
+    private void analyze() {
+        while (!unifyQueue.isEmpty() || !changedNodes.isEmpty()) {
+            while (!unifyQueue.isEmpty()) {
+                Node[] pair = unifyQueue.poll();
+                union(pair[0], pair[1]);
+            }
+            if (!changedNodes.isEmpty()) {
+                processCalls(find(changedNodes.poll()));
+            }
+        }
+    }
+
+    /**
+     * Processes the calls of given class which have not been processed,
+     * i.e., the calls on new objects via processed receiver variables,
+     * and the calls on all objects via new receiver variables.
+     */
+    private void processCalls(Node node) {
+        // processing calls may add objects and receiver variables to node,
+        // but does not unify classes, as unification is deferred
+        while (node.hasUnprocessedCalls()) {
+            int nVars = node.recvVars.size();
+            int nObjs = node.objList.size();
+            for (int i = 0; i < nVars; ++i) {
+                Var var = node.recvVars.get(i);
+                int from = i < node.processedVars ? node.processedObjs : 0;
+                for (int j = from; j < nObjs; ++j) {
+                    processCall(var, node.objList.get(j));
+                }
+            }
+            node.processedVars = nVars;
+            node.processedObjs = nObjs;
+        }
+    }
+
+    /**
+     * Processes instance calls on given receiver object.
+     */
+    private void processCall(Var var, Obj recv) {
+        for (Invoke invoke : var.getInvokes()) {
+            JMethod callee = CallGraphs.resolveCallee(recv.getType(), invoke);
+            if (callee != null) {
+                unify(getVarNode(callee.getIR().getThis()), getVarNode(var));
+                processCallEdge(invoke, callee);
+            }
+        }
+    }
+
+    private void processCallEdge(Invoke invoke, JMethod callee) {
+        if (callee == null) {
+            return;
+        }
+        Edge<Invoke, JMethod> edge = new Edge<>(
+                CallGraphs.getCallKind(invoke), invoke, callee);
+        if (callGraph.addEdge(edge)) {
+            addReachable(callee);
+            for (int i = 0; i < invoke.getInvokeExp().getArgCount(); ++i) {
+                unify(getVarNode(callee.getIR().getParam(i)),
+                        getVarNode(invoke.getInvokeExp().getArg(i)));
+            }
+            Var lValue = invoke.getLValue();
+            if (lValue != null) {
+                for (Var retVar : callee.getIR().getReturnVars()) {
+                    unify(getVarNode(lValue), getVarNode(retVar));
+                }
+            }
+        }
+    }
+
+    private Node newNode() {
+        Node node = new Node();
+        nodes.add(node);
+        return node;
+    }
+
+    private Node getVarNode(Var var) {
+        return varNodes.computeIfAbsent(var, v -> newNode());
+    }
+
+    private Node getStaticFieldNode(JField field) {
+        return staticFieldNodes.computeIfAbsent(field, f -> newNode());
+    }
+
+    private Node getFieldNode(Node base, JField field) {
+        return find(base).fields.computeIfAbsent(field, f -> newNode());
+    }
+
+    private Node getElemsNode(Node base) {
+        Node root = find(base);
+        if (root.elems == null) {
+            root.elems = newNode();
+        }
+        return root.elems;
+    }
+
+    /**
+     * @return the representative of the class of given node.
+     */
+    private static Node find(Node node) {
+        Node root = node;
+        while (root.parent != root) {
+            root = root.parent;
+        }
+        // path compression
+        while (node.parent != root) {
+            Node next = node.parent;
+            node.parent = root;
+            node = next;
+        }
+        return root;
+    }
+
+    /**
+     * Requests to unify the classes of given nodes. The unification is
+     * deferred to avoid deep recursion when unifying their field nodes.
+     */
+    private void unify(Node n1, Node n2) {
+        unifyQueue.add(new Node[]{ n1, n2 });
+    }
+
+    private void union(Node n1, Node n2) {
+        Node r1 = find(n1), r2 = find(n2);
+        if (r1 == r2) {
+            return;
+        }
+        if (r1.rank == r2.rank) {
+            ++r1.rank;
+        }
+        // root becomes the representative of the merged class
+        Node root = r1.rank >= r2.rank ? r1 : r2;
+        Node child = root == r1 ? r2 : r1;
+        child.parent = root;
+        // the objects and receiver variables of the class with more
+        // objects are kept in front together with its processed calls,
+        // and the calls on the rest are processed again, which is
+        // idempotent; the objects of the smaller class are added to
+        // the larger one, as for the points-to sets
+        Node front = root.objs.size() >= child.objs.size() ? root : child;
+        Node back = front == root ? child : root;
+        for (Obj obj : back.objList) {
+            if (front.objs.add(obj)) {
+                front.objList.add(obj);
+            }
+        }
+        front.recvVars.addAll(back.recvVars);
+        root.objs = front.objs;
+        root.objList = front.objList;
+        root.recvVars = front.recvVars;
+        root.processedVars = front.processedVars;
+        root.processedObjs = front.processedObjs;
+        child.objs = Set.of();
+        child.objList = List.of();
+        child.recvVars = List.of();
+        child.fields.forEach((field, node) -> {
+            Node existing = root.fields.putIfAbsent(field, node);
+            if (existing != null) {
+                unify(existing, node);
+            }
+        });
+        child.fields = Map.of();
+        if (child.elems != null) {
+            if (root.elems == null) {
+                root.elems = child.elems;
+            } else {
+                unify(root.elems, child.elems);
+            }
+            child.elems = null;
+        }
+        if (root.hasUnprocessedCalls()) {
+            changedNodes.add(root);
+        }
+    }
+
+    CIPTAResult getResult() {
+        PointerFlowGraph pointerFlowGraph = new PointerFlowGraph();
+        varNodes.forEach((var, node) ->
+                addObjects(pointerFlowGraph.getVarPtr(var), node));
+        staticFieldNodes.forEach((field, node) ->
+                addObjects(pointerFlowGraph.getStaticField(field), node));
+        for (Node node : nodes) {
+            if (find(node) == node) {
+                for (Obj obj : node.objs) {
+                    node.fields.forEach((field, fieldNode) -> addObjects(
+                            pointerFlowGraph.getInstanceField(obj, field), fieldNode));
+                    if (node.elems != null) {
+                        addObjects(pointerFlowGraph.getArrayIndex(obj), node.elems);
+                    }
+                }
+            }
+        }
+        return new CIPTAResult(pointerFlowGraph, callGraph);
+    }
+
+    private static void addObjects(Pointer pointer, Node node) {
+        PointsToSet pts = pointer.getPointsToSet();
+        find(node).objs.forEach(pts::addObject);
+    }
+}
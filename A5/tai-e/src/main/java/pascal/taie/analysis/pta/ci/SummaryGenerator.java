@@ -0,0 +1,261 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.pta.ci.MethodSummary.Flow;
+import pascal.taie.analysis.pta.ci.MethodSummary.Kind;
+import pascal.taie.analysis.pta.ci.MethodSummary.Loc;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.exp.InvokeInstanceExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.*;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Computes points-to summaries of methods.
+ * <p>
+ * The summary is computed by a flow-insensitive intra-procedural analysis
+ * which propagates symbolic locations ({@link Loc}) instead of objects.
+ * Only the methods without static field accesses, and whose field
+ * accesses are at most one level deep from the parameters and allocated
+ * objects, are summarized, so that their effects can be expressed in terms
+ * of the parameters and the return value.
+ * <p>
+ * A method may only call static and special methods, e.g., constructors
+ * calling the constructors of their superclasses, whose summaries allocate
+ * no objects. The summaries of such callees are composed into the summary
+ * of the caller, by mapping the parameters and the return value of
+ * the callee to the locations of the arguments and the result variable.
+ */
+class SummaryGenerator {
+
+    private SummaryGenerator() {
+    }
+
+    /**
+     * @param getSummary returns the summary of a callee, or null if
+     *                   the callee cannot be summarized.
+     * @return the summary of given method, or null if it
+     * cannot be summarized.
+     */
+    @Nullable
+    static MethodSummary generate(JMethod method,
+                                  Function<JMethod, MethodSummary> getSummary) {
+        if (method.isAbstract() || method.isNative()) {
+            return null;
+        }
+        IR ir = method.getIR();
+        Map<Invoke, MethodSummary> calls = Maps.newMap();
+        for (Stmt stmt : ir) {
+            if (stmt instanceof FieldStmt<?, ?> fieldStmt && fieldStmt.isStatic()) {
+                return null;
+            }
+            if (stmt instanceof Invoke invoke) {
+                MethodSummary callee = getCalleeSummary(invoke, getSummary);
+                if (callee == null) {
+                    return null;
+                }
+                calls.put(invoke, callee);
+            }
+        }
+        MultiMap<Var, Loc> locs = Maps.newMultiMap();
+        if (ir.getThis() != null) {
+            locs.put(ir.getThis(), Loc.of(Kind.THIS, 0));
+        }
+        for (int i = 0; i < ir.getParams().size(); ++i) {
+            locs.put(ir.getParam(i), Loc.of(Kind.PARAM, i));
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Stmt stmt : ir) {
+                if (stmt instanceof New newStmt) {
+                    changed |= locs.put(newStmt.getLValue(),
+                            Loc.of(Kind.NEW, newStmt.getIndex()));
+                } else if (stmt instanceof Copy copy) {
+                    changed |= locs.putAll(copy.getLValue(),
+                            locs.get(copy.getRValue()));
+                } else if (stmt instanceof LoadField load) {
+                    Var base = ((InstanceFieldAccess) load.getFieldAccess()).getBase();
+                    JField field = load.getFieldRef().resolve();
+                    for (Loc loc : new ArrayList<>(locs.get(base))) {
+                        if (loc.isDeref()) {
+                            return null;
+                        }
+                        changed |= locs.put(load.getLValue(), loc.deref(field));
+                    }
+                } else if (stmt instanceof LoadArray load) {
+                    Var base = load.getArrayAccess().getBase();
+                    for (Loc loc : new ArrayList<>(locs.get(base))) {
+                        if (loc.isDeref()) {
+                            return null;
+                        }
+                        changed |= locs.put(load.getLValue(), loc.deref(null));
+                    }
+                } else if (stmt instanceof Invoke invoke &&
+                        invoke.getLValue() != null) {
+                    // flows to the return value of the callee
+                    for (Flow flow : calls.get(invoke).flows()) {
+                        if (flow.target().kind() == Kind.RETURN) {
+                            List<Loc> sources = mapLocs(invoke, flow.source(), locs);
+                            if (sources == null) {
+                                return null;
+                            }
+                            changed |= locs.putAll(invoke.getLValue(), sources);
+                        }
+                    }
+                }
+            }
+        }
+        Set<Flow> flows = Sets.newHybridOrderedSet();
+        Loc ret = Loc.of(Kind.RETURN, 0);
+        for (Var retVar : ir.getReturnVars()) {
+            locs.get(retVar).forEach(loc -> flows.add(new Flow(loc, ret)));
+        }
+        for (Stmt stmt : ir) {
+            if (stmt instanceof StoreField store) {
+                Var base = ((InstanceFieldAccess) store.getFieldAccess()).getBase();
+                JField field = store.getFieldRef().resolve();
+                if (!addStoreFlows(flows, locs.get(base), field,
+                        locs.get(store.getRValue()))) {
+                    return null;
+                }
+            } else if (stmt instanceof StoreArray store) {
+                if (!addStoreFlows(flows, locs.get(store.getArrayAccess().getBase()),
+                        null, locs.get(store.getRValue()))) {
+                    return null;
+                }
+            } else if (stmt instanceof Invoke invoke) {
+                // stores to the fields of the arguments in the callee
+                for (Flow flow : calls.get(invoke).flows()) {
+                    Loc target = flow.target();
+                    if (target.isDeref()) {
+                        List<Loc> values = mapLocs(invoke, flow.source(), locs);
+                        if (values == null ||
+                                !addStoreFlows(flows, getArgLocs(invoke, target, locs),
+                                        target.field(), Set.copyOf(values))) {
+                            return null;
+                        }
+                    }
+                }
+            }
+        }
+        return new MethodSummary(new ArrayList<>(flows));
+    }
+
+    /**
+     * @return the summary of the callee of given call site, or null if
+     * the callee may not be unique or its summary cannot be composed.
+     */
+    @Nullable
+    private static MethodSummary getCalleeSummary(
+            Invoke invoke, Function<JMethod, MethodSummary> getSummary) {
+        if (!invoke.isStatic() && !invoke.isSpecial()) {
+            return null;
+        }
+        JMethod callee = CallGraphs.resolveCallee(null, invoke);
+        MethodSummary summary = callee != null ? getSummary.apply(callee) : null;
+        if (summary == null) {
+            return null;
+        }
+        for (Flow flow : summary.flows()) {
+            // allocation sites of the callee have no location in the caller
+            if (flow.source().kind() == Kind.NEW ||
+                    flow.target().kind() == Kind.NEW) {
+                return null;
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * @return the locations in the caller of the variable passed to
+     * the root (this variable or a parameter) of given callee location.
+     */
+    private static Set<Loc> getArgLocs(Invoke invoke, Loc calleeLoc,
+                                       MultiMap<Var, Loc> locs) {
+        Var arg = calleeLoc.kind() == Kind.THIS ?
+                ((InvokeInstanceExp) invoke.getInvokeExp()).getBase() :
+                invoke.getInvokeExp().getArg(calleeLoc.index());
+        return locs.get(arg);
+    }
+
+    /**
+     * Maps a location of the callee, which is rooted at this variable or
+     * a parameter, to the locations in the caller.
+     *
+     * @return the mapped locations, or null if they are more than
+     * one level deep from the parameters and allocated objects.
+     */
+    @Nullable
+    private static List<Loc> mapLocs(Invoke invoke, Loc calleeLoc,
+                                     MultiMap<Var, Loc> locs) {
+        List<Loc> result = new ArrayList<>();
+        for (Loc loc : getArgLocs(invoke, calleeLoc, locs)) {
+            if (!calleeLoc.isDeref()) {
+                result.add(loc);
+            } else if (loc.isDeref()) {
+                return null;
+            } else {
+                result.add(loc.deref(calleeLoc.field()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the flows of a store to given field (or array index if
+     * field is null) of the base locations.
+     *
+     * @return false if the flows cannot be expressed in summary.
+     */
+    private static boolean addStoreFlows(Set<Flow> flows, Set<Loc> bases,
+                                         @Nullable JField field, Set<Loc> values) {
+        for (Loc base : bases) {
+            if (base.isDeref()) {
+                return false;
+            }
+            Loc target = base.deref(field);
+            for (Loc value : values) {
+                if (value.isDynamic() && target.isDynamic()) {
+                    return false;
+                }
+                flows.add(new Flow(value, target));
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.ReferenceLiteral;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Heap model which abstracts all objects of the same type by one object,
+ * so that pointer analysis with this model propagates types instead of
+ * allocation sites, i.e., becomes variable type analysis (VTA).
+ * The points-to sets are much smaller than those of allocation-site
+ * abstraction, and still resolve virtual calls by the receiver types
+ * flowing to the call sites, which is sufficient for the clients that
+ * only need call graph.
+ */
+class TypeBasedModel implements HeapModel {
+
+    private final Map<Type, TypeObj> objs = Maps.newMap();
+
+    @Override
+    public Obj getObj(New allocSite) {
+        return getTypeObj(allocSite.getRValue().getType());
+    }
+
+    @Override
+    public Obj getConstantObj(ReferenceLiteral value) {
+        return getTypeObj(value.getType());
+    }
+
+    private TypeObj getTypeObj(Type type) {
+        return objs.computeIfAbsent(type, TypeObj::new);
+    }
+
+    /**
+     * Represents all objects of a type.
+     */
+    private record TypeObj(Type type) implements Obj {
+
+        @Override
+        public Type getType() {
+            return type;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return type;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.empty();
+        }
+
+        /**
+         * A type object abstracts the allocation sites of its type in all
+         * classes, so it has no container type of its own. Like constant
+         * objects, it returns its own type instead. This is safe because
+         * the container type is only used by type-sensitive context
+         * selectors, and the context-insensitive solvers never query it.
+         */
+        @Override
+        public Type getContainerType() {
+            return type;
+        }
+
+        @Override
+        public String toString() {
+            return "TypeObj{" + type + "}";
+        }
+    }
+}
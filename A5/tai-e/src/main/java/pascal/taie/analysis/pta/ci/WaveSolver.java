@@ -0,0 +1,592 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.*;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Andersen-style pointer analysis solved by wave propagation.
+ * <p>
+ * Instead of propagating each work-list entry eagerly, the solver works
+ * in rounds, each of which
+ * <ol>
+ *     <li>collapses the strongly connected components of the current
+ *     pointer flow graph, as all pointers in a cycle have the same
+ *     points-to set;</li>
+ *     <li>propagates the new objects of each pointer, i.e., the objects
+ *     which have not been propagated to its successors, in topological
+ *     order, so that each pointer is visited once per round;</li>
+ *     <li>processes the complex constraints, i.e., field/array loads and
+ *     stores and instance calls, on the new objects of the variables,
+ *     which may add new edges and reachable methods.</li>
+ * </ol>
+ * The solver terminates when a round propagates no new object. It computes
+ * the same result as {@link Solver}.
+ * <p>
+ * With more than one thread, the propagation of each round is parallel:
+ * the components are grouped by their depth in the condensed graph, and
+ * the components of the same depth, which are independent, are processed
+ * concurrently on a fork/join pool. New objects flowing to a component are
+ * buffered in a lock-free {@link AtomicBitSet} and merged in ascending
+ * order of object number by the thread that processes the component, so
+ * the result is deterministic and identical to the sequential one.
+ */
+class WaveSolver {
+
+    private final HeapModel heapModel;
+
+    /**
+     * Number of threads for propagation, 1 for sequential propagation.
+     */
+    private final int threads;
+
+    /**
+     * Numbers of the objects, which index the bits of {@link AtomicBitSet}.
+     */
+    private final Map<Obj, Integer> objIds = Maps.newMap();
+
+    private final List<Obj> objList = new ArrayList<>();
+
+    private DefaultCallGraph callGraph;
+
+    private PointerFlowGraph pointerFlowGraph;
+
+    private StmtProcessor stmtProcessor;
+
+    /**
+     * Union-find parents of pointers (indexed by pointer id) for
+     * collapsed components.
+     */
+    private int[] parent = new int[0];
+
+    /**
+     * Members of each collapsed component, indexed by the id of its
+     * representative, or null for the pointers that are not collapsed.
+     */
+    private final List<List<Pointer>> members = new ArrayList<>();
+
+    /**
+     * Objects which have been propagated from each representative
+     * to its successors, indexed by pointer id.
+     */
+    private final List<Set<Obj>> propagated = new ArrayList<>();
+
+    WaveSolver(HeapModel heapModel) {
+        this(heapModel, 1);
+    }
+
+    WaveSolver(HeapModel heapModel, int threads) {
+        this.heapModel = heapModel;
+        this.threads = threads;
+    }
+
+    /**
+     * Runs pointer analysis algorithm.
+     */
+    void solve() {
+        pointerFlowGraph = new PointerFlowGraph();
+        callGraph = new DefaultCallGraph();
+        stmtProcessor = new StmtProcessor();
+        JMethod main = World.get().getMainMethod();
+        callGraph.addEntryMethod(main);
+        addReachable(main);
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            while (true) {
+                int[] order = collapseSCCs();
+                List<Pointer> changed = new ArrayList<>();
+                List<Set<Obj>> deltas = new ArrayList<>();
+                if (pool != null) {
+                    propagateInParallel(pool, order, changed, deltas);
+                } else {
+                    propagate(order, changed, deltas);
+                }
+                if (changed.isEmpty()) {
+                    break;
+                }
+                for (int i = 0; i < changed.size(); ++i) {
+                    processComplexConstraints(changed.get(i), deltas.get(i));
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        // all pointers in a collapsed component share the same objects
+        for (Pointer pointer : pointerFlowGraph.getPointers()) {
+            Pointer rep = pointerFlowGraph.getPointer(find(pointer.getId()));
+            if (rep != pointer) {
+                rep.getPointsToSet().forEach(pointer.getPointsToSet()::addObject);
+            }
+        }
+    }
+
+    /**
+     * Processes new reachable method.
+     */
+    private void addReachable(JMethod method) {
+        if (!callGraph.hasNode(method)) {
+            callGraph.addReachableMethod(method);
+            method.getIR().getStmts().forEach(s -> s.accept(stmtProcessor));
+        }
+    }
+
+    /**
+     * Processes statements in new reachable methods.
+     */
+    private class StmtProcessor implements StmtVisitor<Void> {
+
+        @Override
+        public Void visit(New stmt) {
+            addObject(pointerFlowGraph.getVarPtr(stmt.getLValue()),
+                    heapModel.getObj(stmt));
+            return null;
+        }
+
+        @Override
+        public Void visit(Copy stmt) {
+            addPFGEdge(pointerFlowGraph.getVarPtr(stmt.getRValue()),
+                    pointerFlowGraph.getVarPtr(stmt.getLValue()));
+            return null;
+        }
+
+        @Override
+        public Void visit(LoadField stmt) {
+            if (stmt.isStatic()) {
+                JField field = stmt.getFieldRef().resolve();
+                addPFGEdge(pointerFlowGraph.getStaticField(field),
+                        pointerFlowGraph.getVarPtr(stmt.getLValue()));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(StoreField stmt) {
+            if (stmt.isStatic()) {
+                JField field = stmt.getFieldRef().resolve();
+                addPFGEdge(pointerFlowGraph.getVarPtr(stmt.getRValue()),
+                        pointerFlowGraph.getStaticField(field));
+            }
+            return null;
+        }
+
+        @Override
+        public Void visit(Invoke stmt) {
+            if (stmt.isStatic()) {
+                processCallEdge(stmt, CallGraphs.resolveCallee(null, stmt));
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Adds an edge "source -> target" to the PFG. The objects which have
+     * reached source flow to target at once, and are propagated further
+     * in the next round.
+     */
+    private void addPFGEdge(Pointer source, Pointer target) {
+        if (pointerFlowGraph.addEdge(source, target)) {
+            Pointer sourceRep = getRep(source);
+            Pointer targetRep = getRep(target);
+            if (sourceRep != targetRep) {
+                targetRep.getPointsToSet().addAll(sourceRep.getPointsToSet());
+            }
+        }
+    }
+
+    private void addObject(Pointer pointer, Obj obj) {
+        objIds.computeIfAbsent(obj, o -> {
+            objList.add(o);
+            return objList.size() - 1;
+        });
+        getRep(pointer).getPointsToSet().addObject(obj);
+    }
+
+    /**
+     * Collapses the strongly connected components of the PFG.
+     *
+     * @return ids of the representatives in topological order.
+     */
+    private int[] collapseSCCs() {
+        int n = pointerFlowGraph.getNumberOfPointers();
+        ensureCapacity(n);
+        // iterative Tarjan's algorithm over the representatives
+        int[] index = new int[n], low = new int[n];
+        Arrays.fill(index, -1);
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int sp = 0, counter = 0;
+        int[] callStack = new int[n], succPos = new int[n];
+        // successors of the pointers in callStack, which are computed once
+        // per frame, as they are concatenated for collapsed components
+        List<List<Pointer>> succStack = new ArrayList<>();
+        int[] order = new int[n];
+        int orderEnd = n;
+        for (int root = 0; root < n; ++root) {
+            if (find(root) != root || index[root] != -1) {
+                continue;
+            }
+            int csp = 0;
+            callStack[csp++] = root;
+            succStack.add(getSuccsOf(root));
+            index[root] = low[root] = counter++;
+            stack[sp++] = root;
+            onStack[root] = true;
+            succPos[root] = 0;
+            while (csp > 0) {
+                int v = callStack[csp - 1];
+                List<Pointer> succs = succStack.get(csp - 1);
+                if (succPos[v] < succs.size()) {
+                    int w = find(succs.get(succPos[v]++).getId());
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        succPos[w] = 0;
+                        callStack[csp++] = w;
+                        succStack.add(getSuccsOf(w));
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    succStack.remove(--csp);
+                    if (csp > 0) {
+                        int u = callStack[csp - 1];
+                        low[u] = Math.min(low[u], low[v]);
+                    }
+                    if (low[v] == index[v]) {
+                        // v is the root of a component, which is completed
+                        // after all its successors, i.e., in reverse
+                        // topological order
+                        int w;
+                        do {
+                            w = stack[--sp];
+                            onStack[w] = false;
+                            if (w != v) {
+                                merge(v, w);
+                            }
+                        } while (w != v);
+                        order[--orderEnd] = v;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOfRange(order, orderEnd, n);
+    }
+
+    /**
+     * @return successors of the component of given representative.
+     * Successors of collapsed members are included.
+     */
+    private List<Pointer> getSuccsOf(int rep) {
+        List<Pointer> memberList = members.get(rep);
+        if (memberList == null) {
+            return pointerFlowGraph.getSuccsOf(pointerFlowGraph.getPointer(rep));
+        }
+        List<Pointer> succs = new ArrayList<>();
+        for (Pointer member : memberList) {
+            succs.addAll(pointerFlowGraph.getSuccsOf(member));
+        }
+        return succs;
+    }
+
+    /**
+     * Merges the component of other into the component of rep.
+     */
+    private void merge(int rep, int other) {
+        parent[other] = rep;
+        Pointer repPtr = pointerFlowGraph.getPointer(rep);
+        Pointer otherPtr = pointerFlowGraph.getPointer(other);
+        repPtr.getPointsToSet().addAll(otherPtr.getPointsToSet());
+        // only the objects propagated by both have reached all successors
+        getPropagated(rep).retainAll(getPropagated(other));
+        propagated.set(other, null);
+        List<Pointer> repMembers = members.get(rep);
+        if (repMembers == null) {
+            repMembers = new ArrayList<>();
+            repMembers.add(repPtr);
+            members.set(rep, repMembers);
+        }
+        List<Pointer> otherMembers = members.get(other);
+        if (otherMembers == null) {
+            repMembers.add(otherPtr);
+        } else {
+            repMembers.addAll(otherMembers);
+            members.set(other, null);
+        }
+    }
+
+    /**
+     * Propagates the new objects of the representatives in given order.
+     * Representatives with new objects and the new objects are
+     * collected in changed and deltas, respectively.
+     */
+    private void propagate(int[] order, List<Pointer> changed, List<Set<Obj>> deltas) {
+        for (int rep : order) {
+            Pointer pointer = pointerFlowGraph.getPointer(rep);
+            Set<Obj> done = getPropagated(rep);
+            Set<Obj> delta = Sets.newHybridSet();
+            for (Obj obj : pointer.getPointsToSet()) {
+                if (!done.contains(obj)) {
+                    delta.add(obj);
+                }
+            }
+            if (!delta.isEmpty()) {
+                done.addAll(delta);
+                for (Pointer succ : getSuccsOf(rep)) {
+                    Pointer succRep = getRep(succ);
+                    if (succRep != pointer) {
+                        delta.forEach(succRep.getPointsToSet()::addObject);
+                    }
+                }
+                changed.add(pointer);
+                deltas.add(delta);
+            }
+        }
+    }
+
+    /**
+     * Parallel version of {@link #propagate}. The representatives are
+     * grouped by their depth, i.e., the length of the longest path to
+     * them in the condensed graph, so that there is no edge between
+     * the representatives of the same depth.
+     */
+    private void propagateInParallel(ForkJoinPool pool, int[] order,
+                                     List<Pointer> changed, List<Set<Obj>> deltas) {
+        int n = pointerFlowGraph.getNumberOfPointers();
+        int[] depth = new int[n];
+        int maxDepth = 0;
+        List<List<Pointer>> succsOf = new ArrayList<>(order.length);
+        for (int rep : order) {
+            List<Pointer> succReps = new ArrayList<>();
+            for (Pointer succ : getSuccsOf(rep)) {
+                Pointer succRep = getRep(succ);
+                if (succRep.getId() != rep) {
+                    succReps.add(succRep);
+                    depth[succRep.getId()] = Math.max(
+                            depth[succRep.getId()], depth[rep] + 1);
+                }
+            }
+            succsOf.add(succReps);
+            maxDepth = Math.max(maxDepth, depth[rep]);
+        }
+        List<List<Integer>> levels = new ArrayList<>();
+        for (int i = 0; i <= maxDepth; ++i) {
+            levels.add(new ArrayList<>());
+        }
+        for (int i = 0; i < order.length; ++i) {
+            levels.get(depth[order[i]]).add(i);
+        }
+        // buffers of new objects flowing to the representatives,
+        // allocated on first use
+        AtomicReferenceArray<AtomicBitSet> incoming = new AtomicReferenceArray<>(n);
+        int capacity = objList.size();
+        // filled at distinct indexes by the tasks of each level
+        List<Set<Obj>> results = new ArrayList<>(
+                Collections.nCopies(order.length, null));
+        for (List<Integer> level : levels) {
+            IntConsumer task = i -> {
+                int rep = order[i];
+                Pointer pointer = pointerFlowGraph.getPointer(rep);
+                PointsToSet pts = pointer.getPointsToSet();
+                AtomicBitSet buffer = incoming.get(rep);
+                if (buffer != null) {
+                    buffer.drain(id -> pts.addObject(objList.get(id)));
+                }
+                Set<Obj> done = propagated.get(rep);
+                Set<Obj> delta = Sets.newHybridSet();
+                for (Obj obj : pts) {
+                    if (done == null || !done.contains(obj)) {
+                        delta.add(obj);
+                    }
+                }
+                if (!delta.isEmpty()) {
+                    for (Pointer succRep : succsOf.get(i)) {
+                        int succ = succRep.getId();
+                        AtomicBitSet succBuffer = incoming.get(succ);
+                        if (succBuffer == null) {
+                            incoming.compareAndSet(succ, null, new AtomicBitSet(capacity));
+                            succBuffer = incoming.get(succ);
+                        }
+                        for (Obj obj : delta) {
+                            succBuffer.set(objIds.get(obj));
+                        }
+                    }
+                    results.set(i, delta);
+                }
+            };
+            if (level.size() == 1) {
+                task.accept(level.get(0));
+            } else {
+                pool.submit(() -> level.parallelStream()
+                        .forEach(task::accept)).join();
+            }
+        }
+        // update the bookkeeping sequentially, in topological order
+        for (int i = 0; i < order.length; ++i) {
+            Set<Obj> delta = results.get(i);
+            if (delta != null) {
+                getPropagated(order[i]).addAll(delta);
+                changed.add(pointerFlowGraph.getPointer(order[i]));
+                deltas.add(delta);
+            }
+        }
+    }
+
+    /**
+     * Processes field/array loads and stores and instance calls on the
+     * variables of given representative with its new objects.
+     */
+    private void processComplexConstraints(Pointer rep, Set<Obj> delta) {
+        List<Pointer> memberList = members.get(rep.getId());
+        for (Pointer member : memberList != null ? memberList : List.of(rep)) {
+            if (member instanceof VarPtr varPtr) {
+                Var var = varPtr.getVar();
+                for (Obj obj : delta) {
+                    for (LoadField load : var.getLoadFields()) {
+                        addPFGEdge(pointerFlowGraph.getInstanceField(
+                                        obj, load.getFieldRef().resolve()),
+                                pointerFlowGraph.getVarPtr(load.getLValue()));
+                    }
+                    for (StoreField store : var.getStoreFields()) {
+                        addPFGEdge(pointerFlowGraph.getVarPtr(store.getRValue()),
+                                pointerFlowGraph.getInstanceField(
+                                        obj, store.getFieldRef().resolve()));
+                    }
+                    for (LoadArray load : var.getLoadArrays()) {
+                        addPFGEdge(pointerFlowGraph.getArrayIndex(obj),
+                                pointerFlowGraph.getVarPtr(load.getLValue()));
+                    }
+                    for (StoreArray store : var.getStoreArrays()) {
+                        addPFGEdge(pointerFlowGraph.getVarPtr(store.getRValue()),
+                                pointerFlowGraph.getArrayIndex(obj));
+                    }
+                    processCall(var, obj);
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes instance calls on given receiver object.
+     */
+    private void processCall(Var var, Obj recv) {
+        for (Invoke invoke : var.getInvokes()) {
+            JMethod callee = CallGraphs.resolveCallee(recv.getType(), invoke);
+            if (callee != null) {
+                addObject(pointerFlowGraph.getVarPtr(callee.getIR().getThis()), recv);
+                processCallEdge(invoke, callee);
+            }
+        }
+    }
+
+    private void processCallEdge(Invoke invoke, JMethod callee) {
+        if (callee == null) {
+            return;
+        }
+        Edge<Invoke, JMethod> edge = new Edge<>(
+                CallGraphs.getCallKind(invoke), invoke, callee);
+        if (callGraph.addEdge(edge)) {
+            addReachable(callee);
+            for (int i = 0; i < invoke.getInvokeExp().getArgCount(); ++i) {
+                addPFGEdge(pointerFlowGraph.getVarPtr(invoke.getInvokeExp().getArg(i)),
+                        pointerFlowGraph.getVarPtr(callee.getIR().getParam(i)));
+            }
+            Var lValue = invoke.getLValue();
+            if (lValue != null) {
+                for (Var retVar : callee.getIR().getReturnVars()) {
+                    addPFGEdge(pointerFlowGraph.getVarPtr(retVar),
+                            pointerFlowGraph.getVarPtr(lValue));
+                }
+            }
+        }
+    }
+
+    private Pointer getRep(Pointer pointer) {
+        return pointerFlowGraph.getPointer(find(pointer.getId()));
+    }
+
+    private int find(int id) {
+        if (id >= parent.length) {
+            // pointers created after the last collapse are not collapsed
+            return id;
+        }
+        int root = id;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        while (parent[id] != root) {
+            int next = parent[id];
+            parent[id] = root;
+            id = next;
+        }
+        return root;
+    }
+
+    private Set<Obj> getPropagated(int id) {
+        Set<Obj> set = propagated.get(id);
+        if (set == null) {
+            set = Sets.newHybridSet();
+            propagated.set(id, set);
+        }
+        return set;
+    }
+
+    private void ensureCapacity(int n) {
+        int old = parent.length;
+        if (n > old) {
+            parent = Arrays.copyOf(parent, n);
+            for (int i = old; i < n; ++i) {
+                parent[i] = i;
+                members.add(null);
+                propagated.add(null);
+            }
+        }
+    }
+
+    CIPTAResult getResult() {
+        return new CIPTAResult(pointerFlowGraph, callGraph);
+    }
+}
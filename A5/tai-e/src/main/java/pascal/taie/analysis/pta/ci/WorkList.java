@@ -23,6 +23,7 @@
 package pascal.taie.analysis.pta.ci;
 
 import java.util.ArrayDeque;
+import java.util.List;
 import java.util.Queue;
 
 /**
@@ -47,6 +48,13 @@ class WorkList {
         return entries.poll();
     }
 
+    /**
+     * @return the pending entries in this work list.
+     */
+    List<Entry> getEntries() {
+        return List.copyOf(entries);
+    }
+
     /**
      * @return true if the work list is empty, otherwise false.
      */
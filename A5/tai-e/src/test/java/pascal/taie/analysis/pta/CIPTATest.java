@@ -22,8 +22,25 @@
 
 package pascal.taie.analysis.pta;
 
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.ci.CIPTA;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 public class CIPTATest {
 
@@ -78,4 +95,353 @@ public class CIPTATest {
     public void testMergeParam() {
         Tests.testCIPTA(DIR, "MergeParam");
     }
+
+    @Test
+    public void testExampleWave() {
+        Tests.testCIPTA(DIR, "Example", "solver:wave");
+    }
+
+    @Test
+    public void testArrayWave() {
+        Tests.testCIPTA(DIR, "Array", "solver:wave");
+    }
+
+    @Test
+    public void testAssignWave() {
+        Tests.testCIPTA(DIR, "Assign", "solver:wave");
+    }
+
+    @Test
+    public void testAssign2Wave() {
+        Tests.testCIPTA(DIR, "Assign2", "solver:wave");
+    }
+
+    @Test
+    public void testStoreLoadWave() {
+        Tests.testCIPTA(DIR, "StoreLoad", "solver:wave");
+    }
+
+    @Test
+    public void testCallWave() {
+        Tests.testCIPTA(DIR, "Call", "solver:wave");
+    }
+
+    @Test
+    public void testInstanceFieldWave() {
+        Tests.testCIPTA(DIR, "InstanceField", "solver:wave");
+    }
+
+    @Test
+    public void testStaticFieldWave() {
+        Tests.testCIPTA(DIR, "StaticField", "solver:wave");
+    }
+
+    @Test
+    public void testStaticCallWave() {
+        Tests.testCIPTA(DIR, "StaticCall", "solver:wave");
+    }
+
+    @Test
+    public void testMergeParamWave() {
+        Tests.testCIPTA(DIR, "MergeParam", "solver:wave");
+    }
+
+    @Test
+    public void testExampleParallelWave() {
+        Tests.testCIPTA(DIR, "Example", "solver:parallel-wave", "threads:4");
+    }
+
+    @Test
+    public void testArrayParallelWave() {
+        Tests.testCIPTA(DIR, "Array", "solver:parallel-wave", "threads:4");
+    }
+
+    @Test
+    public void testAssignParallelWave() {
+        Tests.testCIPTA(DIR, "Assign", "solver:parallel-wave", "threads:4");
+    }
+
+    @Test
+    public void testAssign2ParallelWave() {
+        Tests.testCIPTA(DIR, "Assign2", "solver:parallel-wave", "threads:4");
+    }
+
+    @Test
+    public void testStoreLoadParallelWave() {
+        Tests.testCIPTA(DIR, "StoreLoad", "solver:parallel-wave", "threads:4");
+    }
+
+    @Test
+    public void testCallParallelWave() {
+        Tests.testCIPTA(DIR, "Call", "solver:parallel-wave", "threads:4");
+    }
+
+    @Test
+    public void testInstanceFieldParallelWave() {
+        Tests.testCIPTA(DIR, "InstanceField", "solver:parallel-wave", "threads:4");
+    }
+
+    @Test
+    public void testStaticFieldParallelWave() {
+        Tests.testCIPTA(DIR, "StaticField", "solver:parallel-wave", "threads:4");
+    }
+
+    @Test
+    public void testStaticCallParallelWave() {
+        Tests.testCIPTA(DIR, "StaticCall", "solver:parallel-wave", "threads:4");
+    }
+
+    @Test
+    public void testMergeParamParallelWave() {
+        Tests.testCIPTA(DIR, "MergeParam", "solver:parallel-wave", "threads:4");
+    }
+
+    @Test
+    public void testExampleDatalog() {
+        Tests.testCIPTA(DIR, "Example", "solver:datalog");
+    }
+
+    @Test
+    public void testArrayDatalog() {
+        Tests.testCIPTA(DIR, "Array", "solver:datalog");
+    }
+
+    @Test
+    public void testAssignDatalog() {
+        Tests.testCIPTA(DIR, "Assign", "solver:datalog");
+    }
+
+    @Test
+    public void testAssign2Datalog() {
+        Tests.testCIPTA(DIR, "Assign2", "solver:datalog");
+    }
+
+    @Test
+    public void testStoreLoadDatalog() {
+        Tests.testCIPTA(DIR, "StoreLoad", "solver:datalog");
+    }
+
+    @Test
+    public void testCallDatalog() {
+        Tests.testCIPTA(DIR, "Call", "solver:datalog");
+    }
+
+    @Test
+    public void testInstanceFieldDatalog() {
+        Tests.testCIPTA(DIR, "InstanceField", "solver:datalog");
+    }
+
+    @Test
+    public void testStaticFieldDatalog() {
+        Tests.testCIPTA(DIR, "StaticField", "solver:datalog");
+    }
+
+    @Test
+    public void testStaticCallDatalog() {
+        Tests.testCIPTA(DIR, "StaticCall", "solver:datalog");
+    }
+
+    @Test
+    public void testMergeParamDatalog() {
+        Tests.testCIPTA(DIR, "MergeParam", "solver:datalog");
+    }
+
+    @Test
+    public void testExampleSteensgaard() {
+        Tests.testCIPTA(DIR, "Example", "solver:steensgaard", "action:compare-sound");
+    }
+
+    @Test
+    public void testArraySteensgaard() {
+        Tests.testCIPTA(DIR, "Array", "solver:steensgaard", "action:compare-sound");
+    }
+
+    @Test
+    public void testCallSteensgaard() {
+        Tests.testCIPTA(DIR, "Call", "solver:steensgaard", "action:compare-sound");
+    }
+
+    @Test
+    public void testInstanceFieldSteensgaard() {
+        Tests.testCIPTA(DIR, "InstanceField", "solver:steensgaard", "action:compare-sound");
+    }
+
+    @Test
+    public void testStaticFieldSteensgaard() {
+        Tests.testCIPTA(DIR, "StaticField", "solver:steensgaard", "action:compare-sound");
+    }
+
+    @Test
+    public void testMergeParamSteensgaard() {
+        Tests.testCIPTA(DIR, "MergeParam", "solver:steensgaard", "action:compare-sound");
+    }
+
+    @Test
+    public void testExampleLibrarySummaries() throws IOException {
+        testLibrarySummaries("Example");
+    }
+
+    @Test
+    public void testCallLibrarySummaries() throws IOException {
+        testLibrarySummaries("Call");
+    }
+
+    /**
+     * Checks that the results with library summaries are identical to
+     * the expected results, which are computed without summaries.
+     */
+    private static void testLibrarySummaries(String main) throws IOException {
+        Path file = Files.createTempDirectory("summaries").resolve("summaries.txt");
+        // the first run generates the summaries, and the second one loads them
+        Tests.testCIPTA(DIR, main, "library-summaries:" + file);
+        Tests.testCIPTA(DIR, main, "library-summaries:" + file);
+    }
+
+    /**
+     * Checks that a library constructor, which calls the constructor of
+     * its superclass, is summarized, and that its summary is applied.
+     */
+    @Test
+    public void testLibraryCallSummaries() throws IOException {
+        Path file = Files.createTempDirectory("summaries").resolve("summaries.txt");
+        Path dump = Files.createTempFile("library-call", ".txt");
+        for (int i = 0; i < 2; ++i) {
+            // the first run generates the summaries, and the second one loads them
+            Tests.testCIPTA(DIR, "LibraryCall", "library-summaries:" + file,
+                    "action:dump", "file:" + dump);
+            PointerAnalysisResult result = World.get().getResult(CIPTA.ID);
+            Set<Obj> pts = result.getPointsToSet(getMainVar(result, "o"));
+            Assert.assertFalse(pts.isEmpty());
+            Assert.assertEquals(pts, result.getPointsToSet(getMainVar(result, "o2")));
+        }
+        String init = "<java.util.concurrent.atomic.AtomicReference: void <init>(java.lang.Object)>";
+        String flow = "p0 => this/<java.util.concurrent.atomic.AtomicReference: java.lang.Object value>";
+        Assert.assertTrue(Files.readAllLines(file).stream().anyMatch(line ->
+                line.startsWith(init) && line.contains(flow)));
+    }
+
+    private static Var getMainVar(PointerAnalysisResult result, String name) {
+        return result.getVars()
+                .stream()
+                .filter(v -> v.getMethod().getName().equals("main") &&
+                        v.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @Test
+    public void testExampleCheckpoint() throws IOException {
+        testCheckpoint("Example");
+    }
+
+    @Test
+    public void testCallCheckpoint() throws IOException {
+        testCheckpoint("Call");
+    }
+
+    /**
+     * Checks that the results resumed from a checkpoint, which is
+     * written at every work-list entry, are identical to the expected results.
+     */
+    private static void testCheckpoint(String main) throws IOException {
+        Path dir = writeCheckpoint(main);
+        Tests.testCIPTA(DIR, main, "resume-from:" + dir);
+    }
+
+    /**
+     * Checks that a checkpoint, whose fingerprint does not match current
+     * program, is rejected. Its points-to sets are widened to all objects,
+     * so the results would differ from the expected ones if it were used.
+     */
+    @Test
+    public void testCheckpointMismatch() throws IOException {
+        Path dir = writeCheckpoint("Example");
+        Path file = dir.resolve("cipta.ckpt");
+        List<String> lines = Files.readAllLines(file);
+        String objs = lines.stream()
+                .filter(line -> line.startsWith("o\t"))
+                .map(line -> line.split("\t")[1])
+                .collect(Collectors.joining(","));
+        Files.write(file, lines.stream().map(line -> {
+            if (line.startsWith("h\t")) {
+                return "h\t" + "0".repeat(64);
+            } else if (line.startsWith("p\t") || line.startsWith("w\t")) {
+                return line.substring(0, line.lastIndexOf('\t') + 1) + objs;
+            } else {
+                return line;
+            }
+        }).toList());
+        Tests.testCIPTA(DIR, "Example", "resume-from:" + dir);
+    }
+
+    /**
+     * Runs the analysis on given program with checkpoints enabled.
+     *
+     * @return the checkpoint directory.
+     */
+    private static Path writeCheckpoint(String main) throws IOException {
+        Path dir = Files.createTempDirectory("checkpoint");
+        Tests.testCIPTA(DIR, main, "checkpoint:" + dir,
+                "checkpoint-interval:0", "checkpoint-check-interval:1");
+        Assert.assertTrue(Files.exists(dir.resolve("cipta.ckpt")));
+        return dir;
+    }
+
+    @Test
+    public void testExampleVTA() throws IOException {
+        testVTA("Example");
+    }
+
+    @Test
+    public void testCallVTA() throws IOException {
+        testVTA("Call");
+    }
+
+    /**
+     * Checks that variable type analysis (vta:true) computes the same call
+     * graph as allocation-site based analysis, and that the types of the
+     * objects pointed to by each variable are the same. In these programs,
+     * merging the objects of the same type loses no precision.
+     */
+    private static void testVTA(String main) throws IOException {
+        Tests.testCIPTA(DIR, main);
+        PointerAnalysisResult expected = World.get().getResult(CIPTA.ID);
+        Set<String> expectedEdges = getCallEdges(expected);
+        Map<String, Set<String>> expectedTypes = getVarTypes(expected);
+
+        Path file = Files.createTempFile("vta", ".txt");
+        Tests.testCIPTA(DIR, main, "vta:true", "action:dump", "file:" + file);
+        PointerAnalysisResult vta = World.get().getResult(CIPTA.ID);
+        Assert.assertEquals(expectedEdges, getCallEdges(vta));
+        Assert.assertEquals(expectedTypes, getVarTypes(vta));
+        // each type is represented by one object
+        for (Var var : vta.getVars()) {
+            Set<Obj> pts = vta.getPointsToSet(var);
+            Assert.assertEquals(pts.size(), pts.stream()
+                    .map(Obj::getType).distinct().count());
+        }
+    }
+
+    private static Set<String> getCallEdges(PointerAnalysisResult result) {
+        CallGraph<Invoke, JMethod> callGraph = result.getCallGraph();
+        return callGraph.edges()
+                .map(e -> callGraph.getContainerOf(e.getCallSite()) + "/" +
+                        e.getCallSite() + " -> " + e.getCallee())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the names of the types of the objects pointed to by each
+     * variable. Names are compared as each run builds its own types.
+     */
+    private static Map<String, Set<String>> getVarTypes(PointerAnalysisResult result) {
+        Map<String, Set<String>> varTypes = new TreeMap<>();
+        for (Var var : result.getVars()) {
+            varTypes.put(var.getMethod() + "/" + var.getName(),
+                    result.getPointsToSet(var).stream()
+                            .map(obj -> obj.getType().getName())
+                            .collect(Collectors.toSet()));
+        }
+        return varTypes;
+    }
 }
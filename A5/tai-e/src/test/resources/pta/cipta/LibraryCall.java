@@ -0,0 +1,10 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+public class LibraryCall {
+
+    public static void main(String[] args) {
+        Object o = new Object();
+        AtomicReference r = new AtomicReference(o);
+        Object o2 = r.get();
+    }
+}
@@ -28,6 +28,7 @@ import pascal.taie.util.collection.Sets;
 import pascal.taie.util.collection.Views;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -50,7 +51,19 @@ public abstract class AbstractCallGraph<CallSite, Method>
     protected final Map<CallSite, Method> callSiteToContainer = Maps.newMap();
     protected final MultiMap<Method, CallSite> callSitesIn = Maps.newMultiMap(Sets::newHybridOrderedSet);
     protected final Set<Method> entryMethods = Sets.newSet();
-    protected final Set<Method> reachableMethods = Sets.newSet();
+    protected final Set<Method> reachableMethods;
+
+    protected AbstractCallGraph() {
+        reachableMethods = Sets.newSet();
+    }
+
+    /**
+     * @param expectedMethods expected number of reachable methods,
+     *                        used to pre-size the set of reachable methods.
+     */
+    protected AbstractCallGraph(int expectedMethods) {
+        reachableMethods = new HashSet<>((int) (expectedMethods / 0.75f) + 1);
+    }
 
     @Override
     public Set<CallSite> getCallersOf(Method callee) {
@@ -45,10 +45,24 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
 
     private final CSManager csManager;
 
+    /**
+     * Number of call edges in this call graph.
+     */
+    private int edgeCount;
+
     public CSCallGraph(CSManager csManager) {
         this.csManager = csManager;
     }
 
+    /**
+     * @param expectedMethods expected number of reachable
+     *                        context-sensitive methods
+     */
+    public CSCallGraph(CSManager csManager, int expectedMethods) {
+        super(expectedMethods);
+        this.csManager = csManager;
+    }
+
     /**
      * Adds an entry method to this call graph.
      */
@@ -82,6 +96,7 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
     public boolean addEdge(Edge<CSCallSite, CSMethod> edge) {
         if (edge.getCallSite().addEdge(edge)) {
             edge.getCallee().addEdge(edge);
+            ++edgeCount;
             return true;
         } else {
             return false;
@@ -134,6 +149,11 @@ public class CSCallGraph extends AbstractCallGraph<CSCallSite, CSMethod> {
                 .flatMap(this::edgesOutOf);
     }
 
+    @Override
+    public int getNumberOfEdges() {
+        return edgeCount;
+    }
+
     @Override
     public boolean isRelevant(Stmt stmt) {
         throw new UnsupportedOperationException();
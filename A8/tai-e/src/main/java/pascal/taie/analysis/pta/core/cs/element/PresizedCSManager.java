@@ -0,0 +1,172 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.element;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.MapMapTwoKeyMap;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map-based {@link CSManager} whose tables are pre-sized for
+ * the expected number of elements, so that they are not rehashed
+ * repeatedly while the analysis grows.
+ * <p>
+ * The tables of context-sensitive elements are keyed by the
+ * context-insensitive elements first, hence they are sized by
+ * the expected number of context-insensitive elements.
+ */
+public class PresizedCSManager implements CSManager {
+
+    private final TwoKeyMap<Var, Context, CSVar> vars;
+
+    private final TwoKeyMap<Obj, Context, CSObj> objs;
+
+    private final TwoKeyMap<Invoke, Context, CSCallSite> callSites;
+
+    private final TwoKeyMap<JMethod, Context, CSMethod> methods;
+
+    private final Map<JField, StaticField> staticFields = Maps.newMap();
+
+    private final TwoKeyMap<CSObj, JField, InstanceField> instanceFields;
+
+    private final Map<CSObj, ArrayIndex> arrayIndexes;
+
+    /**
+     * @param expectedMethods   expected number of methods
+     * @param expectedVars      expected number of variables
+     * @param expectedObjs      expected number of abstract objects
+     * @param expectedCallSites expected number of call sites
+     */
+    public PresizedCSManager(int expectedMethods, int expectedVars,
+                             int expectedObjs, int expectedCallSites) {
+        vars = newTwoKeyMap(expectedVars);
+        objs = newTwoKeyMap(expectedObjs);
+        callSites = newTwoKeyMap(expectedCallSites);
+        methods = newTwoKeyMap(expectedMethods);
+        instanceFields = newTwoKeyMap(expectedObjs);
+        arrayIndexes = newMap(expectedObjs);
+    }
+
+    @Override
+    public CSVar getCSVar(Context context, Var var) {
+        return vars.computeIfAbsent(var, context, (v, c) ->
+                initializePointsToSet(new CSVar(v, c)));
+    }
+
+    @Override
+    public CSObj getCSObj(Context heapContext, Obj obj) {
+        return objs.computeIfAbsent(obj, heapContext, CSObj::new);
+    }
+
+    @Override
+    public CSCallSite getCSCallSite(Context context, Invoke callSite) {
+        return callSites.computeIfAbsent(callSite, context, CSCallSite::new);
+    }
+
+    @Override
+    public CSMethod getCSMethod(Context context, JMethod method) {
+        return methods.computeIfAbsent(method, context, CSMethod::new);
+    }
+
+    @Override
+    public StaticField getStaticField(JField field) {
+        return staticFields.computeIfAbsent(field, f ->
+                initializePointsToSet(new StaticField(f)));
+    }
+
+    @Override
+    public InstanceField getInstanceField(CSObj base, JField field) {
+        return instanceFields.computeIfAbsent(base, field, (b, f) ->
+                initializePointsToSet(new InstanceField(b, f)));
+    }
+
+    @Override
+    public ArrayIndex getArrayIndex(CSObj array) {
+        return arrayIndexes.computeIfAbsent(array, a ->
+                initializePointsToSet(new ArrayIndex(a)));
+    }
+
+    @Override
+    public Collection<Var> getVars() {
+        return vars.keySet();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVarsOf(Var var) {
+        Map<Context, CSVar> csVars = vars.get(var);
+        return csVars != null ? csVars.values() : Set.of();
+    }
+
+    @Override
+    public Collection<CSVar> getCSVars() {
+        return vars.values();
+    }
+
+    @Override
+    public Collection<CSObj> getObjects() {
+        return objs.values();
+    }
+
+    @Override
+    public Collection<StaticField> getStaticFields() {
+        return staticFields.values();
+    }
+
+    @Override
+    public Collection<InstanceField> getInstanceFields() {
+        return instanceFields.values();
+    }
+
+    @Override
+    public Collection<ArrayIndex> getArrayIndexes() {
+        return arrayIndexes.values();
+    }
+
+    private static <P extends Pointer> P initializePointsToSet(P pointer) {
+        pointer.setPointsToSet(PointsToSetFactory.make());
+        return pointer;
+    }
+
+    private static <K1, K2, V> TwoKeyMap<K1, K2, V> newTwoKeyMap(int expectedSize) {
+        return new MapMapTwoKeyMap<>(newMap(expectedSize), Maps::newHybridMap);
+    }
+
+    /**
+     * @return a hash map which holds given number of entries without rehashing.
+     */
+    private static <K, V> Map<K, V> newMap(int expectedSize) {
+        return new HashMap<>((int) (expectedSize / 0.75f) + 1);
+    }
+}
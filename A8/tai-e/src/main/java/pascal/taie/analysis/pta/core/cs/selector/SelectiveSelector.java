@@ -0,0 +1,73 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.core.cs.selector;
+
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.function.Predicate;
+
+/**
+ * Applies context sensitivity of another selector only to selected methods,
+ * and analyzes the other methods context-insensitively.
+ */
+public class SelectiveSelector implements ContextSelector {
+
+    private final ContextSelector delegate;
+
+    private final Predicate<JMethod> isSensitive;
+
+    public SelectiveSelector(ContextSelector delegate,
+                             Predicate<JMethod> isSensitive) {
+        this.delegate = delegate;
+        this.isSensitive = isSensitive;
+    }
+
+    @Override
+    public Context getEmptyContext() {
+        return delegate.getEmptyContext();
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, JMethod callee) {
+        return isSensitive.test(callee) ?
+                delegate.selectContext(callSite, callee) :
+                getEmptyContext();
+    }
+
+    @Override
+    public Context selectContext(CSCallSite callSite, CSObj recv, JMethod callee) {
+        return isSensitive.test(callee) ?
+                delegate.selectContext(callSite, recv, callee) :
+                getEmptyContext();
+    }
+
+    @Override
+    public Context selectHeapContext(CSMethod method, Obj obj) {
+        return delegate.selectHeapContext(method, obj);
+    }
+}
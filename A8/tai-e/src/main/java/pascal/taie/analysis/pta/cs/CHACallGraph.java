@@ -0,0 +1,188 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Cheap call graph built by CHA, used by the pre-passes of the solver.
+ * Only the reachable methods, and the callers and callees of each method
+ * are kept.
+ */
+class CHACallGraph {
+
+    private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+    /**
+     * Cache of the callees of virtual and interface calls, as many call
+     * sites share the same method reference. Static and special calls
+     * have one callee, which depends on the call kind rather than only
+     * the reference, e.g., {@code super.m()} and {@code this.m()} share
+     * the reference of {@code m}, thus they are not cached.
+     */
+    private final Map<MethodRef, Set<JMethod>> dispatchTargets = Maps.newMap();
+
+    private final Set<JMethod> reachableMethods = Sets.newSet();
+
+    private final MultiMap<JMethod, JMethod> callers = Maps.newMultiMap();
+
+    private final MultiMap<JMethod, JMethod> callees = Maps.newMultiMap();
+
+    CHACallGraph(JMethod entry) {
+        Queue<JMethod> workList = new ArrayDeque<>();
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (reachableMethods.add(method)) {
+                for (Stmt stmt : method.getIR()) {
+                    if (stmt instanceof Invoke invoke) {
+                        for (JMethod callee : resolve(invoke)) {
+                            callers.put(callee, method);
+                            callees.put(method, callee);
+                            workList.add(callee);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    Set<JMethod> getReachableMethods() {
+        return Collections.unmodifiableSet(reachableMethods);
+    }
+
+    /**
+     * @return all reachable methods which may call any of given methods
+     * transitively, including the given methods that are reachable.
+     */
+    Set<JMethod> getTransitiveCallersOf(Collection<JMethod> methods) {
+        Set<JMethod> result = Sets.newSet();
+        Queue<JMethod> workList = new ArrayDeque<>();
+        for (JMethod method : methods) {
+            if (reachableMethods.contains(method)) {
+                workList.add(method);
+            }
+        }
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (result.add(method)) {
+                workList.addAll(callers.get(method));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return all methods which may be called by any of given methods
+     * transitively via the methods satisfying given predicate, including
+     * the given methods that are reachable.
+     */
+    Set<JMethod> getTransitiveCalleesOf(Collection<JMethod> methods,
+                                        Predicate<JMethod> filter) {
+        Set<JMethod> result = Sets.newSet();
+        Queue<JMethod> workList = new ArrayDeque<>();
+        for (JMethod method : methods) {
+            if (reachableMethods.contains(method)) {
+                workList.add(method);
+            }
+        }
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (result.add(method)) {
+                for (JMethod callee : callees.get(method)) {
+                    if (filter.test(callee)) {
+                        workList.add(callee);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Resolves callees of a call site via CHA.
+     */
+    private Set<JMethod> resolve(Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        return switch (CallGraphs.getCallKind(callSite)) {
+            case STATIC, SPECIAL -> {
+                Set<JMethod> targets = Sets.newHybridSet();
+                addTarget(targets, hierarchy.dispatch(
+                        methodRef.getDeclaringClass(), methodRef));
+                yield targets;
+            }
+            default -> dispatchTargets.computeIfAbsent(methodRef, this::dispatchAll);
+        };
+    }
+
+    /**
+     * @return all methods which a virtual or interface call
+     * of given method reference may dispatch to.
+     */
+    private Set<JMethod> dispatchAll(MethodRef ref) {
+        Set<JMethod> targets = Sets.newHybridSet();
+        Queue<JClass> classes = new ArrayDeque<>();
+        Set<JClass> visited = Sets.newSet();
+        classes.add(ref.getDeclaringClass());
+        while (!classes.isEmpty()) {
+            JClass jclass = classes.poll();
+            if (!visited.add(jclass)) {
+                continue;
+            }
+            if (!jclass.isAbstract()) {
+                addTarget(targets, hierarchy.dispatch(jclass, ref));
+            }
+            if (jclass.isInterface()) {
+                classes.addAll(hierarchy.getDirectSubinterfacesOf(jclass));
+                classes.addAll(hierarchy.getDirectImplementorsOf(jclass));
+            } else {
+                classes.addAll(hierarchy.getDirectSubclassesOf(jclass));
+            }
+        }
+        return targets;
+    }
+
+    private static void addTarget(Set<JMethod> targets, JMethod target) {
+        if (target != null && !target.isAbstract()) {
+            targets.add(target);
+        }
+    }
+}
@@ -22,27 +22,55 @@
 
 package pascal.taie.analysis.pta.cs;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector;
 import pascal.taie.analysis.pta.core.heap.AllocationSiteBasedModel;
 import pascal.taie.analysis.pta.plugin.ResultProcessor;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.config.ConfigException;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.Strings;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Context-sensitive pointer analysis.
  */
 public class CSPTA extends ProgramAnalysis {
 
+    private static final Logger logger = LogManager.getLogger(CSPTA.class);
+
     public static final String ID = "cspta";
 
+    /**
+     * Options which write files or stop the analysis early. They only apply
+     * to the analysis whose result is returned, and are removed from the
+     * auxiliary analyses, e.g., the first phase of two-phase taint analysis
+     * and the compared variants other than the one given by option "cs".
+     */
+    private static final String[] RESULT_ONLY_OPTIONS = {
+            "taint-flows-stream", "stop-after-flows", "stop-at-sinks",
+            "checkpoint", "resume-from"
+    };
+
     public CSPTA(AnalysisConfig config) {
         super(config);
     }
@@ -50,12 +78,153 @@ public class CSPTA extends ProgramAnalysis {
     @Override
     public PointerAnalysisResult analyze() {
         AnalysisOptions options = getOptions();
-        Solver solver = new Solver(options,
-                new AllocationSiteBasedModel(options),
-                getContextSelector(options.getString("cs")));
+        ContextSelector selector = getContextSelector(options.getString("cs"));
+        PointerAnalysisResult result;
+        if (options.get("compare") != null) {
+            if (options.getBooleanOrDefault("taint-two-phase", false)) {
+                throw new ConfigException(
+                        "Option compare cannot be used with taint-two-phase");
+            }
+            result = compare(options, readVariants(options.get("compare")));
+        } else if (options.getBooleanOrDefault("taint-two-phase", false) &&
+                options.get("taint-config") != null &&
+                !(selector instanceof CISelector)) {
+            result = analyzeTwoPhase(options, selector);
+        } else {
+            Solver solver = new Solver(options,
+                    new AllocationSiteBasedModel(options), selector);
+            solver.solve();
+            result = solver.getResult();
+        }
+        ResultProcessor.process(options, result);
+        return result;
+    }
+
+    /**
+     * Two-phase taint analysis. A context-insensitive analysis first finds
+     * the candidate taint flows. If there is any, a second analysis applies
+     * given context sensitivity to the methods on the slices connecting
+     * the candidates, and confirms or refutes them. The first analysis must
+     * find all candidates, and only the second one streams taint flows,
+     * stops early or writes checkpoints.
+     *
+     * @return the result of the context-insensitive analysis if it finds
+     * no taint flow, otherwise, the result of the second analysis.
+     */
+    private static PointerAnalysisResult analyzeTwoPhase(
+            AnalysisOptions options, ContextSelector selector) {
+        AnalysisOptions ciOptions = DerivedOptions.without(
+                options, RESULT_ONLY_OPTIONS);
+        Solver ciSolver = new Solver(ciOptions,
+                new AllocationSiteBasedModel(ciOptions), new CISelector());
+        ciSolver.solve();
+        PointerAnalysisResult ciResult = ciSolver.getResult();
+        Set<TaintFlow> candidates = ciResult.getResult(TaintAnalysiss.class.getName());
+        if (candidates.isEmpty()) {
+            logger.info("No candidate taint flow, skip context-sensitive phase");
+            return ciResult;
+        }
+        Set<JMethod> slice = TaintSlice.of(ciResult, candidates);
+        logger.info("{} candidate taint flow(s), {} of {} methods on their slices",
+                candidates.size(), slice.size(),
+                ciResult.getCallGraph().getNumberOfMethods());
+        Solver solver = new Solver(options, new AllocationSiteBasedModel(options),
+                new SelectiveSelector(selector, slice::contains));
         solver.solve();
         PointerAnalysisResult result = solver.getResult();
-        ResultProcessor.process(options, result);
+        Set<TaintFlow> confirmed = result.getResult(TaintAnalysiss.class.getName());
+        logger.info("{} taint flow(s) confirmed, {} refuted",
+                confirmed.size(), candidates.size() - confirmed.size());
+        return result;
+    }
+
+    /**
+     * Runs the analysis with each given context-sensitivity variant back to
+     * back on the same program, and logs a table comparing their time,
+     * memory, number of contexts and precision. The variants share the
+     * program and the preprocessing results which do not depend on
+     * context sensitivity, and are computed before timing the variants.
+     * Only the variant given by option "cs" streams taint flows, stops
+     * early or writes checkpoints.
+     *
+     * @return the result of the variant given by option "cs".
+     */
+    private static PointerAnalysisResult compare(
+            AnalysisOptions options, List<String> variants) {
+        Preprocessing preprocessing = new Preprocessing(
+                World.get().getMainMethod(), options);
+        preprocessing.warmUp();
+        AnalysisOptions otherOptions = DerivedOptions.without(
+                options, RESULT_ONLY_OPTIONS);
+        String cs = options.getString("cs");
+        PointerAnalysisResult csResult = null;
+        StringBuilder table = new StringBuilder(String.format(
+                "%-10s %10s %12s %10s %10s %12s %12s %14s%n", "variant", "time(ms)",
+                "memory(MB)", "#contexts", "#methods", "#call edges",
+                "#poly calls", "#var pts"));
+        for (String variant : variants) {
+            AnalysisOptions variantOptions = variant.equals(cs) ? options : otherOptions;
+            long usedBefore = getUsedMemory();
+            long start = System.nanoTime();
+            Solver solver = new Solver(variantOptions,
+                    new AllocationSiteBasedModel(variantOptions),
+                    getContextSelector(variant), preprocessing);
+            solver.solve();
+            long time = (System.nanoTime() - start) / 1_000_000;
+            PointerAnalysisResult result = solver.getResult();
+            long memory = (getUsedMemory() - usedBefore) / (1024 * 1024);
+            PTAStatistics statistics = result.getResult(PTAStatistics.class.getName());
+            CallGraph<Invoke, JMethod> callGraph = result.getCallGraph();
+            long contexts = Stream.concat(
+                            result.getCSVars().stream().map(CSVar::getContext),
+                            result.getCSObjects().stream().map(CSObj::getContext))
+                    .distinct()
+                    .count();
+            long polyCalls = callGraph.reachableMethods()
+                    .flatMap(callGraph::callSitesIn)
+                    .filter(callSite -> callGraph.getCalleesOf(callSite).size() > 1)
+                    .count();
+            table.append(String.format("%-10s %10d %12d %10d %10d %12d %12d %14d%n",
+                    variant, time, memory, contexts,
+                    statistics.getCIReachableMethods(), statistics.getCICallEdges(),
+                    polyCalls, statistics.getCIVarPointsTo()));
+            if (variant.equals(cs)) {
+                csResult = result;
+            }
+        }
+        logger.info("Comparison of context sensitivity:\n{}", table);
+        if (csResult == null) {
+            Solver solver = new Solver(options, new AllocationSiteBasedModel(options),
+                    getContextSelector(cs), preprocessing);
+            solver.solve();
+            csResult = solver.getResult();
+        }
+        return csResult;
+    }
+
+    /**
+     * @return the heap memory (in bytes) used by reachable objects.
+     */
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * @return the context-sensitivity variants given as a list
+     * or a comma-separated string.
+     */
+    private static List<String> readVariants(Object variants) {
+        List<?> values = variants instanceof List<?> list ? list : List.of(variants);
+        List<String> result = new ArrayList<>();
+        for (Object value : values) {
+            for (String variant : value.toString().split(",")) {
+                if (!variant.isBlank()) {
+                    result.add(variant.strip());
+                }
+            }
+        }
         return result;
     }
 
@@ -0,0 +1,281 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallKind;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.HeapModel;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the checkpoint written by {@link CheckpointWriter}.
+ * <p>
+ * Objects and variables are encoded as indexes in the IR of methods, so
+ * a checkpoint is only read if the {@link CheckpointWriter.Fingerprint}
+ * in its header matches the methods in current program. Fields which
+ * cannot be found in current program are skipped.
+ */
+class CheckpointReader {
+
+    /**
+     * The state restored from a checkpoint.
+     *
+     * @param reachableMethods the reachable methods.
+     * @param callEdges        the call edges.
+     * @param entries          the points-to sets and the pending
+     *                         work-list entries.
+     */
+    record Checkpoint(List<CSMethod> reachableMethods,
+                      List<Edge<CSCallSite, CSMethod>> callEdges,
+                      List<WorkList.Entry> entries) {
+    }
+
+    private final CSManager csManager;
+
+    private final HeapModel heapModel;
+
+    private final ClassHierarchy hierarchy = World.get().getClassHierarchy();
+
+    private final Map<Integer, JMethod> methods = Maps.newMap();
+
+    private final Map<Integer, Obj> objs = Maps.newMap();
+
+    private final Map<Integer, Context> contexts = Maps.newMap();
+
+    private final List<CSMethod> reachableMethods = new ArrayList<>();
+
+    private final List<Edge<CSCallSite, CSMethod>> callEdges = new ArrayList<>();
+
+    private final List<WorkList.Entry> entries = new ArrayList<>();
+
+    private CheckpointReader(CSManager csManager, HeapModel heapModel) {
+        this.csManager = csManager;
+        this.heapModel = heapModel;
+    }
+
+    /**
+     * @return the state in given checkpoint, or null if the checkpoint
+     * does not match current program.
+     */
+    @Nullable
+    static Checkpoint read(Path file, CSManager csManager, HeapModel heapModel) {
+        if (!matchesProgram(file)) {
+            return null;
+        }
+        CheckpointReader reader = new CheckpointReader(csManager, heapModel);
+        try (BufferedReader lines = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                reader.read(line.split(CheckpointWriter.SEP));
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read checkpoint from " + file, e);
+        }
+        return new Checkpoint(reader.reachableMethods,
+                reader.callEdges, reader.entries);
+    }
+
+    /**
+     * Computes the fingerprint of the methods in given checkpoint as they
+     * are in current program, and compares it with the one in the header.
+     */
+    private static boolean matchesProgram(Path file) {
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        CheckpointWriter.Fingerprint fingerprint = new CheckpointWriter.Fingerprint();
+        String expected = null;
+        try (BufferedReader lines = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                String[] parts = line.split(CheckpointWriter.SEP);
+                if (parts[0].equals("h")) {
+                    expected = parts[1];
+                } else if (parts[0].equals("m")) {
+                    JMethod method = hierarchy.getMethod(parts[2]);
+                    if (method == null) {
+                        return false;
+                    }
+                    fingerprint.add(method);
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read checkpoint from " + file, e);
+        }
+        return fingerprint.get().equals(expected);
+    }
+
+    private void read(String[] parts) {
+        switch (parts[0]) {
+            case "h" -> {
+                // checked by matchesProgram()
+            }
+            case "m" -> methods.put(id(parts[1]), hierarchy.getMethod(parts[2]));
+            case "o" -> {
+                if (getStmt(parts[2], parts[3]) instanceof New allocSite) {
+                    objs.put(id(parts[1]), heapModel.getObj(allocSite));
+                }
+            }
+            case "c" -> {
+                Object[] elems = new Object[parts.length - 2];
+                for (int i = 0; i < elems.length; ++i) {
+                    elems[i] = readContextElement(parts[i + 2]);
+                    if (elems[i] == null) {
+                        return;
+                    }
+                }
+                contexts.put(id(parts[1]), ListContext.make(elems));
+            }
+            case "r" -> {
+                Context context = contexts.get(id(parts[1]));
+                JMethod method = methods.get(id(parts[2]));
+                if (context != null && method != null) {
+                    reachableMethods.add(csManager.getCSMethod(context, method));
+                }
+            }
+            case "e" -> {
+                Context callerContext = contexts.get(id(parts[2]));
+                Context calleeContext = contexts.get(id(parts[5]));
+                JMethod callee = methods.get(id(parts[6]));
+                if (callerContext != null && calleeContext != null && callee != null &&
+                        getStmt(parts[3], parts[4]) instanceof Invoke callSite) {
+                    callEdges.add(new Edge<>(CallKind.valueOf(parts[1]),
+                            csManager.getCSCallSite(callerContext, callSite),
+                            csManager.getCSMethod(calleeContext, callee)));
+                }
+            }
+            case "p", "w" -> {
+                Pointer pointer = readPointer(
+                        Arrays.copyOfRange(parts, 1, parts.length - 1));
+                if (pointer != null) {
+                    PointsToSet pts = PointsToSetFactory.make();
+                    for (String obj : parts[parts.length - 1].split(",")) {
+                        CSObj csObj = readCSObj(obj);
+                        if (csObj != null) {
+                            pts.addObject(csObj);
+                        }
+                    }
+                    if (!pts.isEmpty()) {
+                        entries.add(new WorkList.Entry(pointer, pts));
+                    }
+                }
+            }
+            default -> throw new AnalysisException(
+                    "Invalid checkpoint line: " + String.join(CheckpointWriter.SEP, parts));
+        }
+    }
+
+    private Object readContextElement(String elem) {
+        String value = elem.substring(1);
+        return switch (elem.charAt(0)) {
+            case 'i' -> {
+                String[] parts = value.split(":");
+                yield getStmt(parts[0], parts[1]) instanceof Invoke invoke ? invoke : null;
+            }
+            case 'o' -> objs.get(id(value));
+            case 't' -> World.get().getTypeSystem().getType(value);
+            default -> null;
+        };
+    }
+
+    private Pointer readPointer(String[] parts) {
+        switch (parts[0]) {
+            case "v" -> {
+                Context context = contexts.get(id(parts[1]));
+                JMethod method = methods.get(id(parts[2]));
+                int index = id(parts[3]);
+                if (context != null && method != null &&
+                        index < method.getIR().getVars().size()) {
+                    return csManager.getCSVar(context, method.getIR().getVar(index));
+                }
+            }
+            case "s" -> {
+                JField field = hierarchy.getField(parts[1]);
+                if (field != null) {
+                    return csManager.getStaticField(field);
+                }
+            }
+            case "f" -> {
+                CSObj base = readCSObj(parts[1]);
+                JField field = hierarchy.getField(parts[2]);
+                if (base != null && field != null) {
+                    return csManager.getInstanceField(base, field);
+                }
+            }
+            case "a" -> {
+                CSObj array = readCSObj(parts[1]);
+                if (array != null) {
+                    return csManager.getArrayIndex(array);
+                }
+            }
+        }
+        return null;
+    }
+
+    private CSObj readCSObj(String s) {
+        int sep = s.indexOf(':');
+        Context context = contexts.get(id(s.substring(0, sep)));
+        Obj obj = objs.get(id(s.substring(sep + 1)));
+        return context != null && obj != null ? csManager.getCSObj(context, obj) : null;
+    }
+
+    /**
+     * @return the statement of given index in given method,
+     * or null if it is absent.
+     */
+    private Object getStmt(String methodId, String index) {
+        JMethod method = methods.get(id(methodId));
+        int i = id(index);
+        return method != null && i < method.getIR().getStmts().size() ?
+                method.getIR().getStmt(i) : null;
+    }
+
+    private static int id(String s) {
+        return Integer.parseInt(s);
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.context.Context;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Periodically writes checkpoints of pointer analysis.
+ * <p>
+ * A checkpoint consists of the reachable methods, the call edges, the
+ * points-to sets and the pending work-list entries. The checkpoint is
+ * encoded into lines of text by the solver thread at a point where the
+ * state is consistent, and the lines are written to the checkpoint file
+ * by a background thread, so that the solver does not wait for I/O.
+ * <p>
+ * Methods, objects and contexts are numbered, and each of them is written
+ * once as a line ({@code m}, {@code o} and {@code c}) before the first
+ * line referring to its number. Objects are identified by their
+ * allocation sites; the facts involving objects that are not allocated
+ * by new statements, e.g., taint objects, are omitted, and are derived
+ * again by the solver after resuming. Pointer flow graph is not written,
+ * as it is also derived again from the call graph and points-to sets.
+ * <p>
+ * The first line ({@code h}) of a checkpoint is the {@link Fingerprint}
+ * of the numbered methods, by which {@link CheckpointReader} rejects the
+ * checkpoints written for another program.
+ *
+ * @see CheckpointReader
+ */
+class CheckpointWriter {
+
+    private static final Logger logger = LogManager.getLogger(CheckpointWriter.class);
+
+    static final String SEP = "\t";
+
+    private final Path file;
+
+    private final long intervalNanos;
+
+    private long lastTime = System.nanoTime();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "pta-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * The write of the last checkpoint, or null if no checkpoint is written.
+     */
+    private Future<?> lastWrite;
+
+    CheckpointWriter(Path file, int intervalSeconds) {
+        this.file = file;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(intervalSeconds);
+    }
+
+    /**
+     * @return true if the checkpoint interval has passed and the last
+     * checkpoint has been written.
+     */
+    boolean isDue() {
+        return System.nanoTime() - lastTime >= intervalNanos &&
+                (lastWrite == null || lastWrite.isDone());
+    }
+
+    /**
+     * Encodes a checkpoint of given state, and writes it in background.
+     */
+    void write(CSCallGraph callGraph, CSManager csManager,
+               List<WorkList.Entry> entries) {
+        lastTime = System.nanoTime();
+        List<String> lines = new Encoder().encode(callGraph, csManager, entries);
+        lastWrite = executor.submit(() -> write(lines));
+    }
+
+    private void write(List<String> lines) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.write(tmp, lines);
+            // replaces the previous checkpoint only after
+            // the new one is completely written
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Wrote checkpoint ({} lines) to {}", lines.size(), file);
+        } catch (IOException e) {
+            logger.error("Failed to write checkpoint to " + file, e);
+        }
+    }
+
+    /**
+     * Waits for the last checkpoint to be written, and stops the
+     * background thread.
+     */
+    void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Encodes the elements of a checkpoint.
+     */
+    private static class Encoder {
+
+        private static final int ABSENT = -1;
+
+        private final List<String> lines = new ArrayList<>();
+
+        private final Map<JMethod, Integer> methodIds = Maps.newMap();
+
+        private final Fingerprint fingerprint = new Fingerprint();
+
+        private final Map<Obj, Integer> objIds = Maps.newMap();
+
+        private final Map<Context, Integer> contextIds = Maps.newMap();
+
+        private List<String> encode(CSCallGraph callGraph, CSManager csManager,
+                                    List<WorkList.Entry> entries) {
+            callGraph.reachableMethods().forEach(csMethod -> {
+                int context = encode(csMethod.getContext());
+                if (context != ABSENT) {
+                    lines.add(join("r", context, encode(csMethod.getMethod())));
+                }
+            });
+            callGraph.edges().forEach(this::encode);
+            Stream.<Collection<? extends Pointer>>of(csManager.getCSVars(),
+                            csManager.getStaticFields(), csManager.getInstanceFields(),
+                            csManager.getArrayIndexes())
+                    .flatMap(Collection::stream)
+                    .forEach(pointer -> encode("p", pointer, pointer.getPointsToSet()));
+            entries.forEach(entry -> encode("w", entry.pointer(), entry.pointsToSet()));
+            lines.add(0, join("h", fingerprint.get()));
+            return lines;
+        }
+
+        private void encode(Edge<CSCallSite, CSMethod> edge) {
+            CSCallSite csCallSite = edge.getCallSite();
+            CSMethod callee = edge.getCallee();
+            int callerContext = encode(csCallSite.getContext());
+            int calleeContext = encode(callee.getContext());
+            if (callerContext != ABSENT && calleeContext != ABSENT) {
+                Invoke callSite = csCallSite.getCallSite();
+                lines.add(join("e", edge.getKind(), callerContext,
+                        encode(callSite.getContainer()), callSite.getIndex(),
+                        calleeContext, encode(callee.getMethod())));
+            }
+        }
+
+        private void encode(String kind, Pointer pointer, PointsToSet pts) {
+            String ptr = encode(pointer);
+            if (ptr == null || pts.isEmpty()) {
+                return;
+            }
+            StringJoiner objs = new StringJoiner(",");
+            pts.forEach(csObj -> {
+                String obj = encode(csObj);
+                if (obj != null) {
+                    objs.add(obj);
+                }
+            });
+            if (objs.length() > 0) {
+                lines.add(join(kind, ptr, objs));
+            }
+        }
+
+        /**
+         * @return the encoded pointer, or null if it cannot be encoded.
+         */
+        private String encode(Pointer pointer) {
+            if (pointer instanceof CSVar csVar) {
+                int context = encode(csVar.getContext());
+                return context == ABSENT ? null : join("v", context,
+                        encode(csVar.getVar().getMethod()), csVar.getVar().getIndex());
+            } else if (pointer instanceof StaticField staticField) {
+                return join("s", staticField.getField().getSignature());
+            } else if (pointer instanceof InstanceField instanceField) {
+                String base = encode(instanceField.getBase());
+                return base == null ? null :
+                        join("f", base, instanceField.getField().getSignature());
+            } else if (pointer instanceof ArrayIndex arrayIndex) {
+                String base = encode(arrayIndex.getArray());
+                return base == null ? null : join("a", base);
+            }
+            return null;
+        }
+
+        /**
+         * @return the encoded object as "context:object",
+         * or null if it cannot be encoded.
+         */
+        private String encode(CSObj csObj) {
+            int context = encode(csObj.getContext());
+            int obj = encode(csObj.getObject());
+            return context == ABSENT || obj == ABSENT ? null : context + ":" + obj;
+        }
+
+        private int encode(JMethod method) {
+            Integer id = methodIds.get(method);
+            if (id == null) {
+                id = methodIds.size();
+                methodIds.put(method, id);
+                lines.add(join("m", id, method.getSignature()));
+                fingerprint.add(method);
+            }
+            return id;
+        }
+
+        private int encode(Obj obj) {
+            Integer id = objIds.get(obj);
+            if (id == null) {
+                if (obj.getAllocation() instanceof New allocSite) {
+                    id = objIds.size();
+                    lines.add(join("o", id, encode(allocSite.getContainer()),
+                            allocSite.getIndex()));
+                } else {
+                    id = ABSENT;
+                }
+                objIds.put(obj, id);
+            }
+            return id;
+        }
+
+        private int encode(Context context) {
+            Integer id = contextIds.get(context);
+            if (id == null) {
+                StringJoiner elems = new StringJoiner(SEP);
+                for (int i = 0; i < context.getLength() && elems != null; ++i) {
+                    Object elem = context.getElementAt(i);
+                    if (elem instanceof Invoke invoke) {
+                        elems.add("i" + encode(invoke.getContainer()) + ":" + invoke.getIndex());
+                    } else if (elem instanceof Obj obj && encode(obj) != ABSENT) {
+                        elems.add("o" + encode(obj));
+                    } else if (elem instanceof Type type) {
+                        elems.add("t" + type.getName());
+                    } else {
+                        elems = null;
+                    }
+                }
+                if (elems != null) {
+                    id = contextIds.size();
+                    lines.add(context.getLength() == 0 ? join("c", id) :
+                            join("c", id, elems));
+                } else {
+                    id = ABSENT;
+                }
+                contextIds.put(context, id);
+            }
+            return id;
+        }
+
+        private static String join(Object... parts) {
+            StringJoiner joiner = new StringJoiner(SEP);
+            for (Object part : parts) {
+                joiner.add(part.toString());
+            }
+            return joiner.toString();
+        }
+    }
+
+    /**
+     * Fingerprint of the methods in a checkpoint, i.e., the digest of
+     * their signatures and the numbers of statements and variables in
+     * their IR. Objects and variables are written as indexes in the IR,
+     * which may refer to other elements once the methods have changed.
+     */
+    static class Fingerprint {
+
+        private final MessageDigest digest;
+
+        Fingerprint() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new AnalysisException("SHA-256 is not available", e);
+            }
+        }
+
+        /**
+         * Adds a method to this fingerprint. The methods must be added
+         * in the order of their numbers.
+         */
+        void add(JMethod method) {
+            StringJoiner joiner = new StringJoiner(SEP, "", "\n");
+            joiner.add(method.getSignature());
+            if (!method.isAbstract()) {
+                IR ir = method.getIR();
+                joiner.add(Integer.toString(ir.getStmts().size()))
+                        .add(Integer.toString(ir.getVars().size()));
+            }
+            digest.update(joiner.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        String get() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}
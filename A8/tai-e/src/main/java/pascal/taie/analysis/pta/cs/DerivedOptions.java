@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.config.AnalysisOptions;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Analysis options derived from other options by removing some of them.
+ * {@link CSPTA} uses them for the auxiliary pointer analyses whose results
+ * are not returned, e.g., the first phase of two-phase taint analysis.
+ */
+class DerivedOptions extends AnalysisOptions {
+
+    private final AnalysisOptions options;
+
+    /**
+     * Map from a key to its new value, or null if the key is removed.
+     */
+    private final Map<String, Object> overrides;
+
+    private DerivedOptions(AnalysisOptions options, Map<String, Object> overrides) {
+        super(Map.of());
+        this.options = options;
+        this.overrides = overrides;
+    }
+
+    /**
+     * @return given options without the options of given keys.
+     */
+    static AnalysisOptions without(AnalysisOptions options, String... keys) {
+        Map<String, Object> overrides = new HashMap<>();
+        Arrays.stream(keys).forEach(key -> overrides.put(key, null));
+        return new DerivedOptions(options, overrides);
+    }
+
+    @Override
+    public Object get(String key) {
+        return overrides.containsKey(key) ? overrides.get(key) : options.get(key);
+    }
+
+    @Override
+    public boolean getBooleanOrDefault(String key, boolean defaultValue) {
+        Object value = get(key);
+        return value != null ? (Boolean) value : defaultValue;
+    }
+
+    @Override
+    public String toString() {
+        return options + " overridden by " + overrides;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.graph.callgraph.Edge;
+import pascal.taie.analysis.pta.core.cs.CSCallGraph;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.CSCallSite;
+import pascal.taie.analysis.pta.core.cs.element.CSMethod;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Statistics of context-sensitive pointer analysis.
+ * <p>
+ * The figures are maintained by {@link Solver} as points-to relations,
+ * reachable methods and call edges are discovered, so that reporting
+ * them does not require another pass over the analysis result.
+ */
+public class PTAStatistics {
+
+    private final CSCallGraph callGraph;
+
+    /**
+     * Whether the analysis is context-insensitive, in which case
+     * the context-insensitive figures equal to the sensitive ones.
+     */
+    private final boolean contextInsensitive;
+
+    private long varPointsTo;
+
+    private long staticFieldPointsTo;
+
+    private long instanceFieldPointsTo;
+
+    private long arrayPointsTo;
+
+    /**
+     * Indexes of the objects pointed to by variables, which are
+     * the bit indexes in {@link #ciVarObjs}.
+     */
+    private final Map<Obj, Integer> objIndexes = Maps.newMap();
+
+    /**
+     * Context-insensitive projection of variable points-to relations.
+     * The objects pointed to by each variable are kept in a bit set,
+     * which is much smaller than a set of the objects.
+     */
+    private final Map<Var, BitSet> ciVarObjs = Maps.newMap();
+
+    private long ciVarPointsTo;
+
+    private final Set<JMethod> ciReachableMethods = Sets.newSet();
+
+    private final MultiMap<Invoke, JMethod> ciCallEdges = Maps.newMultiMap();
+
+    private long ciCallEdgesSize;
+
+    PTAStatistics(CSCallGraph callGraph, boolean contextInsensitive) {
+        this.callGraph = callGraph;
+        this.contextInsensitive = contextInsensitive;
+    }
+
+    /**
+     * Updates the statistics with new objects pointed to by given pointer.
+     */
+    void onNewPointsTo(Pointer pointer, PointsToSet diff) {
+        int size = diff.size();
+        if (pointer instanceof CSVar csVar) {
+            varPointsTo += size;
+            if (!contextInsensitive) {
+                BitSet objs = ciVarObjs.computeIfAbsent(
+                        csVar.getVar(), v -> new BitSet());
+                for (CSObj csObj : diff) {
+                    int index = objIndexes.computeIfAbsent(
+                            csObj.getObject(), o -> objIndexes.size());
+                    if (!objs.get(index)) {
+                        objs.set(index);
+                        ++ciVarPointsTo;
+                    }
+                }
+            }
+        } else if (pointer instanceof StaticField) {
+            staticFieldPointsTo += size;
+        } else if (pointer instanceof InstanceField) {
+            instanceFieldPointsTo += size;
+        } else if (pointer instanceof ArrayIndex) {
+            arrayPointsTo += size;
+        }
+    }
+
+    /**
+     * Updates the statistics with a new reachable method.
+     */
+    void onNewMethod(CSMethod csMethod) {
+        if (!contextInsensitive) {
+            ciReachableMethods.add(csMethod.getMethod());
+        }
+    }
+
+    /**
+     * Updates the statistics with a new call edge.
+     */
+    void onNewCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        if (!contextInsensitive &&
+                ciCallEdges.put(edge.getCallSite().getCallSite(),
+                        edge.getCallee().getMethod())) {
+            ++ciCallEdgesSize;
+        }
+    }
+
+    public long getVarPointsTo() {
+        return varPointsTo;
+    }
+
+    public long getCIVarPointsTo() {
+        return contextInsensitive ? varPointsTo : ciVarPointsTo;
+    }
+
+    public long getStaticFieldPointsTo() {
+        return staticFieldPointsTo;
+    }
+
+    public long getInstanceFieldPointsTo() {
+        return instanceFieldPointsTo;
+    }
+
+    public long getArrayPointsTo() {
+        return arrayPointsTo;
+    }
+
+    public long getReachableMethods() {
+        return callGraph.getNumberOfMethods();
+    }
+
+    public long getCIReachableMethods() {
+        return contextInsensitive ?
+                getReachableMethods() : ciReachableMethods.size();
+    }
+
+    public long getCallEdges() {
+        return callGraph.getNumberOfEdges();
+    }
+
+    public long getCICallEdges() {
+        return contextInsensitive ? getCallEdges() : ciCallEdgesSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#reachable methods: %d, #call graph edges: %d, " +
+                        "#var points-to: %d, #static field points-to: %d, " +
+                        "#instance field points-to: %d, #array points-to: %d",
+                getReachableMethods(), getCallEdges(), varPointsTo,
+                staticFieldPointsTo, instanceFieldPointsTo, arrayPointsTo);
+    }
+}
@@ -26,6 +26,7 @@ import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
 
+import java.util.HashMap;
 import java.util.Set;
 
 /**
@@ -36,7 +37,20 @@ class PointerFlowGraph {
     /**
      * Map from a pointer (node) to its successors in PFG.
      */
-    private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
+    private final MultiMap<Pointer, Pointer> successors;
+
+    PointerFlowGraph() {
+        successors = Maps.newMultiMap();
+    }
+
+    /**
+     * @param expectedPointers expected number of pointers
+     *                         which have successors
+     */
+    PointerFlowGraph(int expectedPointers) {
+        successors = Maps.newMultiMap(
+                new HashMap<>((int) (expectedPointers / 0.75f) + 1));
+    }
 
     /**
      * Adds an edge (source -> target) to this PFG.
@@ -0,0 +1,112 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.function.Predicate;
+
+/**
+ * Preprocessing results of the program which do not depend on context
+ * sensitivity. They are computed on demand, and are never modified once
+ * computed, thus can be shared by the solvers of different context
+ * selectors that analyze the same program with the same taint configs.
+ */
+class Preprocessing {
+
+    private final JMethod entry;
+
+    private final AnalysisOptions options;
+
+    /**
+     * The variables which are never substituted by {@link #varEquivalence},
+     * i.e., the targets of taint transfers to base variables.
+     */
+    private final Predicate<Var> isPinned;
+
+    private CHACallGraph chaCallGraph;
+
+    private SizeEstimate sizeEstimate;
+
+    private VarEquivalence varEquivalence;
+
+    /**
+     * @param options the options of the solvers sharing this preprocessing.
+     *                The taint configs are read once here if option hvn
+     *                is enabled.
+     */
+    Preprocessing(JMethod entry, AnalysisOptions options) {
+        this.entry = entry;
+        this.options = options;
+        this.isPinned = options.getBooleanOrDefault("hvn", false) ?
+                TaintAnalysiss.getTransferTargets(options) : var -> false;
+    }
+
+    /**
+     * @return the call graph built by CHA from the entry method.
+     */
+    CHACallGraph getCHACallGraph() {
+        if (chaCallGraph == null) {
+            chaCallGraph = new CHACallGraph(entry);
+        }
+        return chaCallGraph;
+    }
+
+    SizeEstimate getSizeEstimate() {
+        if (sizeEstimate == null) {
+            sizeEstimate = SizeEstimate.of(getCHACallGraph());
+        }
+        return sizeEstimate;
+    }
+
+    /**
+     * Computes the results used by the solvers ahead of solving, e.g.,
+     * so that they are not counted in the time of the first solver which
+     * shares this preprocessing. Building the CHA call graph also builds
+     * the IR of the methods reachable by CHA.
+     */
+    void warmUp() {
+        CHACallGraph chaCallGraph = getCHACallGraph();
+        if (options.getBooleanOrDefault("pre-size", false)) {
+            getSizeEstimate();
+        }
+        if (options.getBooleanOrDefault("hvn", false)) {
+            VarEquivalence equivalence = getVarEquivalence();
+            chaCallGraph.getReachableMethods().forEach(equivalence::compute);
+        }
+    }
+
+    /**
+     * @return the offline equivalence of variables, which never
+     * substitutes the variables pinned by the taint configs.
+     */
+    VarEquivalence getVarEquivalence() {
+        if (varEquivalence == null) {
+            varEquivalence = new VarEquivalence(isPinned);
+        }
+        return varEquivalence;
+    }
+}
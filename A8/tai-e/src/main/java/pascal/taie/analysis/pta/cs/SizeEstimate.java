@@ -0,0 +1,70 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+
+/**
+ * Estimated size of the program part analyzed by pointer analysis.
+ * <p>
+ * The estimate is computed by a cheap pass which builds the reachable
+ * methods with CHA, and counts their variables, allocation sites and
+ * call sites. As CHA over-approximates the call graph of pointer analysis,
+ * the figures are upper bounds of the number of (context-insensitive)
+ * elements that the solver creates, and are used to pre-size its tables.
+ */
+record SizeEstimate(int methods, int vars, int objs, int callSites) {
+
+    /**
+     * Estimates the size of the program reachable from given entry method.
+     */
+    static SizeEstimate of(JMethod entry) {
+        return of(new CHACallGraph(entry));
+    }
+
+    /**
+     * Estimates the size of the program with given CHA call graph.
+     */
+    static SizeEstimate of(CHACallGraph chaCallGraph) {
+        Set<JMethod> reachable = chaCallGraph.getReachableMethods();
+        int vars = 0, objs = 0, callSites = 0;
+        for (JMethod method : reachable) {
+            IR ir = method.getIR();
+            vars += ir.getVars().size();
+            for (Stmt stmt : ir) {
+                if (stmt instanceof New) {
+                    ++objs;
+                } else if (stmt instanceof Invoke) {
+                    ++callSites;
+                }
+            }
+        }
+        return new SizeEstimate(reachable.size(), vars, objs, callSites);
+    }
+}
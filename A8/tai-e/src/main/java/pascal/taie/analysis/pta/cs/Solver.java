@@ -41,33 +41,61 @@ import pascal.taie.analysis.pta.core.cs.element.CSVar;
 import pascal.taie.analysis.pta.core.cs.element.InstanceField;
 import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.cs.element.PresizedCSManager;
 import pascal.taie.analysis.pta.core.cs.element.StaticField;
+import pascal.taie.analysis.pta.core.cs.selector.CISelector;
 import pascal.taie.analysis.pta.core.cs.selector.ContextSelector;
+import pascal.taie.analysis.pta.core.cs.selector.SelectiveSelector;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+import pascal.taie.analysis.pta.pts.CanonicalSets;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ReferenceType;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
-import java.util.HashSet;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Set;
 
 public class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Number of processed work-list entries between two progress reports.
+     */
+    private static final int PROGRESS_INTERVAL = 1_000_000;
+
+    /**
+     * Default number of work-list entries processed between two checks
+     * of whether a checkpoint is due.
+     */
+    private static final int DEFAULT_CHECKPOINT_CHECK_INTERVAL = 10_000;
+
+    /**
+     * Default interval (in seconds) between two checkpoints.
+     */
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 600;
+
     private final AnalysisOptions options;
 
     private final HeapModel heapModel;
 
-    private final ContextSelector contextSelector;
+    private final Preprocessing preprocessing;
+
+    private ContextSelector contextSelector;
 
     private CSManager csManager;
 
@@ -75,17 +103,59 @@ public class Solver {
 
     private PointerFlowGraph pointerFlowGraph;
 
+    /**
+     * Edges through variables sanitized by taint analysis. They are kept
+     * out of {@link #pointerFlowGraph}, as taint objects are filtered
+     * when propagating along them.
+     */
+    private final MultiMap<Pointer, SanitizedEdge> sanitizedEdges = Maps.newMultiMap();
+
+    /**
+     * Represents an edge to target through the variable of given index
+     * sanitized by given method.
+     */
+    private record SanitizedEdge(Pointer target, JMethod sanitizer, int index) {
+    }
+
     private WorkList workList;
 
+    /**
+     * Canonical backing sets of the points-to sets shared by this solver.
+     */
+    private final CanonicalSets canonicalSets = new CanonicalSets();
+
     private TaintAnalysiss taintAnalysis;
 
+    /**
+     * Pointer equivalence of variables, or null if variables
+     * are not substituted.
+     */
+    private VarEquivalence equivalence;
+
+    private PTAStatistics statistics;
+
+    private CheckpointWriter checkpointWriter;
+
+    private int checkpointCheckInterval;
+
     private PointerAnalysisResult result;
 
     Solver(AnalysisOptions options, HeapModel heapModel,
            ContextSelector contextSelector) {
+        this(options, heapModel, contextSelector,
+                new Preprocessing(World.get().getMainMethod(), options));
+    }
+
+    /**
+     * @param preprocessing the preprocessing results shared with
+     *                      the other solvers of the same program.
+     */
+    Solver(AnalysisOptions options, HeapModel heapModel,
+           ContextSelector contextSelector, Preprocessing preprocessing) {
         this.options = options;
         this.heapModel = heapModel;
         this.contextSelector = contextSelector;
+        this.preprocessing = preprocessing;
     }
 
     public AnalysisOptions getOptions() {
@@ -103,21 +173,136 @@ public class Solver {
     void solve() {
         initialize();
         analyze();
+        if (checkpointWriter != null) {
+            checkpointWriter.close();
+        }
+        if (csManager instanceof SubstitutingCSManager substituting) {
+            for (CSVar csVar : substituting.expand()) {
+                PointsToSet pts = csVar.getPointsToSet();
+                if (!pts.isEmpty()) {
+                    statistics.onNewPointsTo(csVar, pts);
+                }
+            }
+        }
         taintAnalysis.onFinish();
+        getResult().storeResult(PTAStatistics.class.getName(), statistics);
     }
 
     private void initialize() {
-        csManager = new MapBasedCSManager();
-        callGraph = new CSCallGraph(csManager);
-        pointerFlowGraph = new PointerFlowGraph();
+        JMethod main = World.get().getMainMethod();
+        if (options.getBooleanOrDefault("pre-size", false)) {
+            SizeEstimate estimate = preprocessing.getSizeEstimate();
+            logger.info("Pre-sizing with estimate: {}", estimate);
+            csManager = new PresizedCSManager(estimate.methods(),
+                    estimate.vars(), estimate.objs(), estimate.callSites());
+            callGraph = new CSCallGraph(csManager, estimate.methods());
+            pointerFlowGraph = new PointerFlowGraph(estimate.vars());
+        } else {
+            csManager = new MapBasedCSManager();
+            callGraph = new CSCallGraph(csManager);
+            pointerFlowGraph = new PointerFlowGraph();
+        }
+        if (options.getBooleanOrDefault("hvn", false)) {
+            equivalence = preprocessing.getVarEquivalence();
+            csManager = new SubstitutingCSManager(csManager, equivalence);
+        }
         workList = new WorkList();
+        statistics = new PTAStatistics(callGraph,
+                contextSelector instanceof CISelector);
         taintAnalysis = new TaintAnalysiss(this);
+        if (options.getBooleanOrDefault("taint-prune", false)) {
+            // only methods that may reach sinks or taint transfers, and
+            // the methods which taints may flow through when called by
+            // them, e.g., identity functions and container methods,
+            // benefit from context sensitivity
+            CHACallGraph chaCallGraph = preprocessing.getCHACallGraph();
+            Set<JMethod> relevant = chaCallGraph.getTransitiveCalleesOf(
+                    chaCallGraph.getTransitiveCallersOf(
+                            taintAnalysis.getSinkAndTransferMethods()),
+                    Solver::passesReferences);
+            logger.info("{} of {} methods may pass taints to sinks or transfers",
+                    relevant.size(), chaCallGraph.getReachableMethods().size());
+            contextSelector = new SelectiveSelector(
+                    contextSelector, relevant::contains);
+        }
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
-        JMethod main = World.get().getMainMethod();
         CSMethod csMethod = csManager.getCSMethod(defContext, main);
         callGraph.addEntryMethod(csMethod);
         addReachable(csMethod);
+        String checkpointName = getCheckpointName();
+        String resumeFrom = options.getString("resume-from");
+        if (resumeFrom != null) {
+            resume(Path.of(resumeFrom, checkpointName));
+        }
+        String checkpointDir = options.getString("checkpoint");
+        if (checkpointDir != null) {
+            int interval = options.get("checkpoint-interval") instanceof Integer n ?
+                    n : DEFAULT_CHECKPOINT_INTERVAL;
+            checkpointCheckInterval =
+                    options.get("checkpoint-check-interval") instanceof Integer n ?
+                            n : DEFAULT_CHECKPOINT_CHECK_INTERVAL;
+            if (checkpointCheckInterval <= 0) {
+                throw new ConfigException("Invalid checkpoint-check-interval: " +
+                        checkpointCheckInterval);
+            }
+            checkpointWriter = new CheckpointWriter(
+                    Path.of(checkpointDir, checkpointName), interval);
+        }
+    }
+
+    /**
+     * @return true if given method may receive or return reference values,
+     * i.e., taint objects may flow through it.
+     */
+    private static boolean passesReferences(JMethod method) {
+        return !method.isStatic() ||
+                method.getReturnType() instanceof ReferenceType ||
+                method.getParamTypes().stream()
+                        .anyMatch(ReferenceType.class::isInstance);
+    }
+
+    /**
+     * Checkpoints of different context-sensitivity variants and phases
+     * are kept apart. The name is derived from the options instead of
+     * {@link #contextSelector}, which may be wrapped by, e.g.,
+     * {@link SelectiveSelector} for taint pruning and two-phase analysis.
+     */
+    private String getCheckpointName() {
+        StringBuilder name = new StringBuilder(options.getString("cs"));
+        if (options.getBooleanOrDefault("taint-prune", false)) {
+            name.append("-prune");
+        }
+        if (options.getBooleanOrDefault("taint-two-phase", false)) {
+            name.append("-two-phase");
+        }
+        return name.append(".ckpt").toString();
+    }
+
+    /**
+     * Seeds the solver with the state in given checkpoint. As the state
+     * is a part of the final result, solving from the seeded state
+     * reaches the same result as solving from scratch.
+     */
+    private void resume(Path file) {
+        if (!Files.exists(file)) {
+            logger.info("No checkpoint at {}, solve from scratch", file);
+            return;
+        }
+        CheckpointReader.Checkpoint checkpoint =
+                CheckpointReader.read(file, csManager, heapModel);
+        if (checkpoint == null) {
+            logger.warn("Checkpoint {} does not match current program, " +
+                    "solve from scratch", file);
+            return;
+        }
+        checkpoint.reachableMethods().forEach(this::addReachable);
+        checkpoint.callEdges().forEach(this::addCallEdge);
+        checkpoint.entries().forEach(entry ->
+                workList.addEntry(entry.pointer(), entry.pointsToSet()));
+        logger.info("Resumed from {}: {} reachable methods, {} call edges, " +
+                        "{} points-to entries", file, checkpoint.reachableMethods().size(),
+                checkpoint.callEdges().size(), checkpoint.entries().size());
     }
 
     /**
@@ -126,6 +311,7 @@ public class Solver {
     private void addReachable(CSMethod csMethod) {
         // TODO - finish me
         if (callGraph.addReachableMethod(csMethod)) {
+            statistics.onNewMethod(csMethod);
             for (Stmt stmt : csMethod.getMethod().getIR().getStmts()) {
                 stmt.accept(new StmtProcessor(csMethod));
             }
@@ -167,7 +353,9 @@ public class Solver {
             /* lCsVar = rCsVar; */
             CSVar rCsVar = csManager.getCSVar(context, stmt.getRValue());
             CSVar lCsVar = csManager.getCSVar(context, stmt.getLValue());
-            addPFGEdge(rCsVar, lCsVar);
+            if (rCsVar != lCsVar) { // the variables may be equivalent
+                addPFGEdge(rCsVar, lCsVar);
+            }
 
             return StmtVisitor.super.visit(stmt);
         }
@@ -207,14 +395,10 @@ public class Solver {
                 Context newContext = contextSelector.selectContext(csCallSite, method); // 选择新的上下文
                 CSMethod csMethod = csManager.getCSMethod(newContext, method);  // 组成上下文方法
 
-                Edge<CSCallSite, CSMethod> callEdge = new Edge<>(CallKind.STATIC, csCallSite, csMethod);
-                if (callGraph.addEdge(callEdge)) {
-                    addReachable(csMethod);
-                    passArgsAndRetVar(stmt, method, context, newContext);
-                }
+                addCallEdge(new Edge<>(CallKind.STATIC, csCallSite, csMethod));
 
                 // TODO 分析污点
-                taintAnalysis.analyzeTaintOnStaticCall(stmt, context);
+                taintAnalysis.analyzeTaintOnStaticCall(stmt, method, context);
             }
             return StmtVisitor.super.visit(stmt);
         }
@@ -224,64 +408,110 @@ public class Solver {
      * Adds an edge "source -> target" to the PFG.
      */
     private void addPFGEdge(Pointer source, Pointer target) {
-        // TODO 源指针和目标指针的指向关系集应该不能直接赋值？
-        PointsToSet sourcePTS = source.getPointsToSet();
-        PointsToSet targetPTS = PointsToSetFactory.make();
-        if (pointerFlowGraph.addEdge(source, target) && (!sourcePTS.isEmpty())) {
-            targetPTS.addAll(sourcePTS);
-            workList.addEntry(target, targetPTS);
+        if (pointerFlowGraph.addEdge(source, target)) {
+            PointsToSet sourcePTS = source.getPointsToSet();
+            if (!sourcePTS.isEmpty()) {
+                // snapshot of pt(source); if the source owns its objects,
+                // they are copied, so that it can keep adding objects in place
+                PointsToSet targetPTS = PointsToSetFactory.make();
+                targetPTS.addAll(sourcePTS);
+                workList.addEntry(target, canonicalSets.share(targetPTS));
+            }
+            taintAnalysis.onNewPFGEdge(source, target);
         }
     }
 
+    /**
+     * Adds an edge "source -> target" which passes the variable of given
+     * index, i.e., an argument index, base or result, of a call to method.
+     */
+    private void addCallPFGEdge(Pointer source, Pointer target,
+                                JMethod method, int index) {
+        if (!taintAnalysis.isSanitized(method, index)) {
+            addPFGEdge(source, target);
+        } else if (sanitizedEdges.put(source,
+                new SanitizedEdge(target, method, index))) {
+            PointsToSet sourcePTS = source.getPointsToSet();
+            if (!sourcePTS.isEmpty()) {
+                PointsToSet targetPTS = taintAnalysis.sanitize(
+                        source, sourcePTS, target, method, index);
+                if (!targetPTS.isEmpty()) {
+                    workList.addEntry(target, targetPTS);
+                }
+            }
+            taintAnalysis.onNewSanitizedPFGEdge(source, target, method, index);
+        }
+    }
+
+    /**
+     * @return successors of given pointer in the PFG.
+     */
+    public Set<Pointer> getPFGSuccsOf(Pointer pointer) {
+        return pointerFlowGraph.getSuccsOf(pointer);
+    }
+
     /**
      * Processes work-list entries until the work-list is empty.
      */
     private void analyze() {
-        while (!workList.isEmpty()) {
+        long processed = 0;
+        while (!workList.isEmpty() && !taintAnalysis.isStopped()) {
+            if (++processed % PROGRESS_INTERVAL == 0) {
+                logger.info("Processed {} work-list entries, {}",
+                        processed, statistics);
+            }
+            if (checkpointWriter != null &&
+                    processed % checkpointCheckInterval == 0 &&
+                    checkpointWriter.isDue()) {
+                checkpointWriter.write(callGraph, csManager, workList.getEntries());
+            }
             WorkList.Entry entry = workList.pollEntry();
             Pointer pointer = entry.pointer();
             PointsToSet newPTS = entry.pointsToSet();
             PointsToSet diffPTS = propagate(pointer, newPTS);
             if (pointer instanceof CSVar) {
                 CSVar csVar = (CSVar) pointer;
+                Context context = csVar.getContext();
+                List<Var> vars = varsOf(csVar);
                 for (CSObj csObj : diffPTS.getObjects()) {
-                    Context context = csVar.getContext();
-                    // handle field load
-                    for (LoadField stmt : csVar.getVar().getLoadFields()) {
-                        /* y = x.f */
-                        JField field = stmt.getFieldRef().resolve();
-                        InstanceField instanceField = csManager.getInstanceField(csObj, field);
-                        CSVar lCSVar = csManager.getCSVar(context, stmt.getLValue());
-
-                        addPFGEdge(instanceField, lCSVar);
-                    }
-
-                    // handle array load
-                    for (LoadArray stmt : csVar.getVar().getLoadArrays()) {
-                        /* y = x[i] */
-                        ArrayIndex arrayIndex = csManager.getArrayIndex(csObj);
-                        CSVar lCSVar = csManager.getCSVar(context, stmt.getLValue());
-
-                        addPFGEdge(arrayIndex, lCSVar);
-                    }
-
-                    // handle field store
-                    for (StoreField stmt : csVar.getVar().getStoreFields()) {
-                        /* x.f = y */
-                        CSVar rCSVar = csManager.getCSVar(context, stmt.getRValue());
-                        JField field = stmt.getFieldRef().resolve();
-                        InstanceField instanceField = csManager.getInstanceField(csObj, field);
-
-                        addPFGEdge(rCSVar, instanceField);
-                    }
-
-                    // handle array store
-                    for (StoreArray stmt : csVar.getVar().getStoreArrays()) {
-                        /* x[i] = y */
-                        CSVar rCSVar = csManager.getCSVar(context, stmt.getRValue());
-                        ArrayIndex arrayIndex = csManager.getArrayIndex(csObj);
-
-                        addPFGEdge(rCSVar, arrayIndex);
+                    for (Var var : vars) {
+                        // handle field load
+                        for (LoadField stmt : var.getLoadFields()) {
+                            /* y = x.f */
+                            JField field = stmt.getFieldRef().resolve();
+                            InstanceField instanceField = csManager.getInstanceField(csObj, field);
+                            CSVar lCSVar = csManager.getCSVar(context, stmt.getLValue());
+
+                            addPFGEdge(instanceField, lCSVar);
+                        }
+
+                        // handle array load
+                        for (LoadArray stmt : var.getLoadArrays()) {
+                            /* y = x[i] */
+                            ArrayIndex arrayIndex = csManager.getArrayIndex(csObj);
+                            CSVar lCSVar = csManager.getCSVar(context, stmt.getLValue());
+
+                            addPFGEdge(arrayIndex, lCSVar);
+                        }
+
+                        // handle field store
+                        for (StoreField stmt : var.getStoreFields()) {
+                            /* x.f = y */
+                            CSVar rCSVar = csManager.getCSVar(context, stmt.getRValue());
+                            JField field = stmt.getFieldRef().resolve();
+                            InstanceField instanceField = csManager.getInstanceField(csObj, field);
+
+                            addPFGEdge(rCSVar, instanceField);
+                        }
+
+                        // handle array store
+                        for (StoreArray stmt : var.getStoreArrays()) {
+                            /* x[i] = y */
+                            CSVar rCSVar = csManager.getCSVar(context, stmt.getRValue());
+                            ArrayIndex arrayIndex = csManager.getArrayIndex(csObj);
+
+                            addPFGEdge(rCSVar, arrayIndex);
+                        }
                     }
 
                     // handle method invocation
@@ -296,19 +526,36 @@ public class Solver {
      * returns the difference set of pointsToSet and pt(pointer).
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
-        PointsToSet diffPTS = PointsToSetFactory.make();
-
-        Set<CSObj> objects = new HashSet<>(pointsToSet.getObjects());
-        objects.removeAll(pointer.getPointsToSet().getObjects());
-        if (!objects.isEmpty()) {
-            for (CSObj csObj : objects) {
-                diffPTS.addObject(csObj);   // 加入指向关系差集
-                pointer.getPointsToSet().addObject(csObj);  // 加入指针自己的指向关系集合
+        PointsToSet pts = pointer.getPointsToSet();
+        PointsToSet diffPTS;
+        if (pts.isEmpty()) {
+            // pt(pointer) shares the objects of the work-list entry instead
+            // of copying them, and all of them are new to the pointer
+            diffPTS = canonicalSets.share(pointsToSet);
+            pts.addAll(diffPTS);
+        } else {
+            diffPTS = PointsToSetFactory.make();
+            for (CSObj csObj : pointsToSet) {
+                if (pts.addObject(csObj)) {
+                    diffPTS.addObject(csObj);
+                }
             }
+            // the difference set is not modified any more, and may be
+            // adopted by the empty successors
+            canonicalSets.share(diffPTS);
+        }
+        if (!diffPTS.isEmpty()) {
+            statistics.onNewPointsTo(pointer, diffPTS);
             for (Pointer success : pointerFlowGraph.getSuccsOf(pointer)) {
-                // TODO 需要重新，以防 PointsToSet.getObjects()指向同一个对象
                 workList.addEntry(success, diffPTS);
             }
+            for (SanitizedEdge edge : sanitizedEdges.get(pointer)) {
+                PointsToSet sanitized = taintAnalysis.sanitize(pointer,
+                        diffPTS, edge.target(), edge.sanitizer(), edge.index());
+                if (!sanitized.isEmpty()) {
+                    workList.addEntry(edge.target(), sanitized);
+                }
+            }
 
             // TODO arg 向 base 和 result 传播污点
             taintAnalysis.transferTaintOfArgs(pointer, diffPTS);
@@ -324,24 +571,36 @@ public class Solver {
      */
     private void processCall(CSVar recv, CSObj recvObj) {
         Context context = recv.getContext();
-        for (Invoke stmt : recv.getVar().getInvokes()) {
-            JMethod method = resolveCallee(recvObj, stmt);  // 解析方法签名
-            CSCallSite csCallSite = csManager.getCSCallSite(context, stmt);
-            Context newContext = contextSelector.selectContext(csCallSite, recvObj, method);    // 确定被调方法的上下文
-
-            // recv var -> this var
-            CSVar csThisVar = csManager.getCSVar(newContext, method.getIR().getThis());
-            addPFGEdge(recv, csThisVar);
-
-            CSMethod csMethod = csManager.getCSMethod(newContext, method);
-            Edge<CSCallSite, CSMethod> edge = new Edge<>(getCallKind(stmt), csCallSite, csMethod);   // 获得调用边
-            if (callGraph.addEdge(edge)) {
-                addReachable(csMethod);
-                passArgsAndRetVar(stmt, method, context, newContext);
+        for (Var var : varsOf(recv)) {
+            for (Invoke stmt : var.getInvokes()) {
+                JMethod method = resolveCallee(recvObj, stmt);  // 解析方法签名
+                CSCallSite csCallSite = csManager.getCSCallSite(context, stmt);
+                Context newContext = contextSelector.selectContext(csCallSite, recvObj, method);    // 确定被调方法的上下文
+
+                // recv var -> this var
+                CSVar csThisVar = csManager.getCSVar(newContext, method.getIR().getThis());
+                addCallPFGEdge(recv, csThisVar, method, TaintAnalysiss.BASE);
+
+                CSMethod csMethod = csManager.getCSMethod(newContext, method);
+                addCallEdge(new Edge<>(getCallKind(stmt), csCallSite, csMethod));   // 获得调用边
+
+                // TODO 分析污点
+                taintAnalysis.analyzeTaintOnCall(stmt, method, recv, recvObj);
             }
+        }
+    }
 
-            // TODO 分析污点
-            taintAnalysis.analyzeTaintOnCall(stmt, recv, recvObj);
+    /**
+     * Adds a call edge, and processes the callee if the edge is new.
+     */
+    private void addCallEdge(Edge<CSCallSite, CSMethod> edge) {
+        if (callGraph.addEdge(edge)) {
+            statistics.onNewCallEdge(edge);
+            CSCallSite csCallSite = edge.getCallSite();
+            CSMethod csMethod = edge.getCallee();
+            addReachable(csMethod);
+            passArgsAndRetVar(csCallSite.getCallSite(), csMethod.getMethod(),
+                    csCallSite.getContext(), csMethod.getContext());
         }
     }
 
@@ -357,7 +616,7 @@ public class Solver {
         for (int i = 0; i < method.getParamCount(); i++) {
             CSVar csArgVar = csManager.getCSVar(rawContext, stmt.getInvokeExp().getArg(i));
             CSVar csParamVar = csManager.getCSVar(newContext, method.getIR().getParam(i));
-            addPFGEdge(csArgVar, csParamVar);
+            addCallPFGEdge(csArgVar, csParamVar, method, i);
         }
 
         // 传递 ret var
@@ -366,11 +625,20 @@ public class Solver {
             CSVar csLVar = csManager.getCSVar(rawContext, lVar);
             for (Var retVar : method.getIR().getReturnVars()) {
                 CSVar csRetVar = csManager.getCSVar(newContext, retVar);
-                addPFGEdge(csRetVar, csLVar);
+                addCallPFGEdge(csRetVar, csLVar, method, TaintAnalysiss.RESULT);
             }
         }
     }
 
+    /**
+     * @return the variables represented by given context-sensitive variable.
+     */
+    private List<Var> varsOf(CSVar csVar) {
+        return equivalence != null ?
+                equivalence.getMembers(csVar.getVar()) :
+                List.of(csVar.getVar());
+    }
+
     public void addWork(Pointer pointer, PointsToSet pointsToSet) {
         workList.addEntry(pointer, pointsToSet);
     }
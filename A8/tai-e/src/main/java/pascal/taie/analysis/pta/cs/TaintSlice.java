@@ -0,0 +1,204 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.cs.element.ArrayIndex;
+import pascal.taie.analysis.pta.core.cs.element.InstanceField;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Computes the methods on the call-graph slices that connect the source
+ * calls and sink calls of candidate taint flows.
+ * <p>
+ * A taint flows from the method containing its source call up to
+ * the callers, and then down from a common caller to the method containing
+ * its sink call. Thus, the slice of a flow consists of the methods which
+ * call (transitively) the source or sink container and are called by
+ * a common caller of both containers, together with the methods
+ * called (transitively) by them which handle the taint objects or
+ * the objects holding them, e.g., helpers which pass the taint through,
+ * or which modify the containers holding the taint.
+ */
+class TaintSlice {
+
+    private final CallGraph<Invoke, JMethod> callGraph;
+
+    /**
+     * Cache of transitive callers of each method, including the method.
+     */
+    private final Map<JMethod, Set<JMethod>> ancestors = Maps.newMap();
+
+    private TaintSlice(CallGraph<Invoke, JMethod> callGraph) {
+        this.callGraph = callGraph;
+    }
+
+    /**
+     * @param result the context-insensitive result which finds given flows.
+     * @return the methods on the slices of given taint flows.
+     */
+    static Set<JMethod> of(PointerAnalysisResult result, Set<TaintFlow> flows) {
+        CallGraph<Invoke, JMethod> callGraph = result.getCallGraph();
+        TaintSlice slicer = new TaintSlice(callGraph);
+        Set<JMethod> slice = Sets.newSet();
+        // pairs of source and sink containers that have been sliced
+        MultiMap<JMethod, JMethod> sliced = Maps.newMultiMap();
+        for (TaintFlow flow : flows) {
+            JMethod source = callGraph.getContainerOf(flow.sourceCall());
+            JMethod sink = callGraph.getContainerOf(flow.sinkCall());
+            if (sliced.put(source, sink)) {
+                slicer.addSlice(source, sink, slice);
+            }
+        }
+        // a callee analyzed context-insensitively may merge the objects
+        // which the slice keeps apart, e.g., a helper that grows the
+        // backing array of a container merges the arrays of all containers.
+        // Callees which handle neither taint objects nor their holders
+        // cannot merge them, thus they are traversed but not added.
+        // If the taint objects are kept out of the points-to sets,
+        // e.g., by option separate-taint, all callees are added.
+        Set<Obj> holders = getTaintHolders(result, flows);
+        Queue<JMethod> workList = new ArrayDeque<>(slice);
+        Set<JMethod> visited = Sets.newSet();
+        visited.addAll(slice);
+        while (!workList.isEmpty()) {
+            for (JMethod callee : callGraph.getCalleesOfM(workList.poll())) {
+                if (visited.add(callee)) {
+                    workList.add(callee);
+                    if (holders.isEmpty() || handles(result, callee, holders)) {
+                        slice.add(callee);
+                    }
+                }
+            }
+        }
+        return slice;
+    }
+
+    /**
+     * @return the taint objects of the source calls of given flows,
+     * and the objects holding them (transitively) in their fields
+     * or array elements.
+     */
+    private static Set<Obj> getTaintHolders(
+            PointerAnalysisResult result, Set<TaintFlow> flows) {
+        Set<Invoke> sourceCalls = Sets.newSet();
+        flows.forEach(flow -> sourceCalls.add(flow.sourceCall()));
+        Queue<Obj> workList = new ArrayDeque<>();
+        for (Obj obj : result.getObjects()) {
+            if (sourceCalls.contains(obj.getAllocation())) {
+                workList.add(obj);
+            }
+        }
+        // objects whose fields or array elements point to each object
+        MultiMap<Obj, Obj> holders = Maps.newMultiMap();
+        for (InstanceField field : result.getInstanceFields()) {
+            Obj base = field.getBase().getObject();
+            field.getPointsToSet().forEach(csObj ->
+                    holders.put(csObj.getObject(), base));
+        }
+        for (ArrayIndex arrayIndex : result.getArrayIndexes()) {
+            Obj array = arrayIndex.getArray().getObject();
+            arrayIndex.getPointsToSet().forEach(csObj ->
+                    holders.put(csObj.getObject(), array));
+        }
+        Set<Obj> taintHolders = Sets.newSet();
+        while (!workList.isEmpty()) {
+            Obj obj = workList.poll();
+            if (taintHolders.add(obj)) {
+                workList.addAll(holders.get(obj));
+            }
+        }
+        return taintHolders;
+    }
+
+    /**
+     * @return true if any variable of given method may point to
+     * any of given objects.
+     */
+    private static boolean handles(PointerAnalysisResult result,
+                                   JMethod method, Set<Obj> objs) {
+        for (Var var : method.getIR().getVars()) {
+            for (Obj obj : result.getPointsToSet(var)) {
+                if (objs.contains(obj)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addSlice(JMethod source, JMethod sink, Set<JMethod> slice) {
+        Set<JMethod> sourceAncestors = getAncestors(source);
+        Set<JMethod> sinkAncestors = getAncestors(sink);
+        // traverse down from the common callers of both containers
+        Queue<JMethod> workList = new ArrayDeque<>();
+        Set<JMethod> visited = Sets.newSet();
+        for (JMethod method : sourceAncestors) {
+            if (sinkAncestors.contains(method)) {
+                workList.add(method);
+            }
+        }
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (visited.add(method)) {
+                slice.add(method);
+                for (JMethod callee : callGraph.getCalleesOfM(method)) {
+                    if (sourceAncestors.contains(callee) ||
+                            sinkAncestors.contains(callee)) {
+                        workList.add(callee);
+                    }
+                }
+            }
+        }
+    }
+
+    private Set<JMethod> getAncestors(JMethod method) {
+        return ancestors.computeIfAbsent(method, m -> {
+            Set<JMethod> result = Sets.newSet();
+            Queue<JMethod> workList = new ArrayDeque<>();
+            workList.add(m);
+            while (!workList.isEmpty()) {
+                JMethod current = workList.poll();
+                if (result.add(current)) {
+                    for (Invoke callSite : callGraph.getCallersOf(current)) {
+                        workList.add(callGraph.getContainerOf(callSite));
+                    }
+                }
+            }
+            return result;
+        });
+    }
+}
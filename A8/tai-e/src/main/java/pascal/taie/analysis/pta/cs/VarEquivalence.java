@@ -0,0 +1,179 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.cs;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.SCC;
+import pascal.taie.util.graph.SimpleGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Offline pointer equivalence of variables, computed by hash-based
+ * value numbering (HVN) over the copy constraints of each method.
+ * <p>
+ * A variable whose only incoming constraints are copies {@code v = u}
+ * from variables in the same method receives a value number determined
+ * by the value numbers of its copy sources, and all other variables
+ * receive fresh value numbers. Variables with the same value number
+ * always point to the same objects in the same context, thus they can be
+ * represented by a single variable during solving. Copy cycles are
+ * collapsed first, as all variables in a cycle are equivalent.
+ * <p>
+ * The equivalence of a method is computed on demand, before any of its
+ * variables is queried.
+ */
+class VarEquivalence {
+
+    /**
+     * Variables which may receive objects other than via copies,
+     * besides definitions and parameters, e.g., the targets
+     * of taint transfers. Such variables are never substituted.
+     */
+    private final Predicate<Var> isPinned;
+
+    private final Set<JMethod> computedMethods = Sets.newSet();
+
+    /**
+     * Map from substituted variable to its representative.
+     */
+    private final Map<Var, Var> reps = Maps.newMap();
+
+    /**
+     * Map from representative to all variables it represents,
+     * including itself.
+     */
+    private final Map<Var, List<Var>> members = Maps.newMap();
+
+    VarEquivalence(Predicate<Var> isPinned) {
+        this.isPinned = isPinned;
+    }
+
+    /**
+     * @return the variable which represents given variable in solving.
+     */
+    Var getRepresentative(Var var) {
+        compute(var.getMethod());
+        return reps.getOrDefault(var, var);
+    }
+
+    /**
+     * @return all variables represented by given representative.
+     */
+    List<Var> getMembers(Var rep) {
+        List<Var> vars = members.get(rep);
+        return vars != null ? vars : List.of(rep);
+    }
+
+    /**
+     * @return the map from substituted variables to their representatives.
+     */
+    Map<Var, Var> getSubstitutions() {
+        return reps;
+    }
+
+    /**
+     * Computes the equivalence of given method, if it is not computed yet.
+     */
+    void compute(JMethod method) {
+        if (!computedMethods.add(method)) {
+            return;
+        }
+        IR ir = method.getIR();
+        // build copy graph, with edges from the copy targets to the sources
+        SimpleGraph<Var> copyGraph = new SimpleGraph<>();
+        Set<Var> fresh = Sets.newSet();
+        if (ir.getThis() != null) {
+            fresh.add(ir.getThis());
+        }
+        fresh.addAll(ir.getParams());
+        for (Var var : ir.getVars()) {
+            copyGraph.addNode(var);
+            if (isPinned.test(var)) {
+                fresh.add(var);
+            }
+        }
+        for (Stmt stmt : ir) {
+            if (stmt instanceof Copy copy) {
+                copyGraph.addEdge(copy.getLValue(), copy.getRValue());
+            } else {
+                stmt.getDef().ifPresent(def -> {
+                    if (def instanceof Var var) {
+                        fresh.add(var);
+                    }
+                });
+            }
+        }
+        // assign value numbers; SCC yields the components of copy sources
+        // before the components copying from them
+        Map<Var, Integer> valueNumbers = Maps.newMap(ir.getVars().size());
+        Map<Set<Integer>, Integer> numbering = Maps.newMap();
+        int nextNumber = 0;
+        for (List<Var> component : new SCC<>(copyGraph).getComponents()) {
+            Set<Integer> labels = Sets.newHybridSet();
+            for (Var var : component) {
+                if (fresh.contains(var)) {
+                    labels.add(nextNumber++);
+                }
+                for (Var source : copyGraph.getSuccsOf(var)) {
+                    Integer number = valueNumbers.get(source);
+                    if (number != null) { // null if source is in this component
+                        labels.add(number);
+                    }
+                }
+            }
+            int number;
+            if (labels.size() == 1) {
+                number = labels.iterator().next();
+            } else {
+                Integer existing = numbering.get(labels);
+                if (existing == null) {
+                    existing = nextNumber++;
+                    numbering.put(labels, existing);
+                }
+                number = existing;
+            }
+            component.forEach(var -> valueNumbers.put(var, number));
+        }
+        // select the first variable of each value number as representative
+        Map<Integer, Var> repOfNumber = Maps.newMap();
+        for (Var var : ir.getVars()) {
+            Var rep = repOfNumber.putIfAbsent(valueNumbers.get(var), var);
+            if (rep != null) {
+                reps.put(var, rep);
+                members.computeIfAbsent(rep, r -> new ArrayList<>(List.of(r)))
+                        .add(var);
+            }
+        }
+    }
+}
@@ -26,6 +26,7 @@ import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 
 import java.util.ArrayDeque;
+import java.util.List;
 import java.util.Queue;
 
 /**
@@ -50,6 +51,13 @@ class WorkList {
         return entries.poll();
     }
 
+    /**
+     * @return the pending entries in this work list.
+     */
+    List<Entry> getEntries() {
+        return List.copyOf(entries);
+    }
+
     /**
      * @return true if the work list is empty, otherwise false.
      */
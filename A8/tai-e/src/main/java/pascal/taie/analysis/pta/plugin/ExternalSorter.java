@@ -0,0 +1,183 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin;
+
+import pascal.taie.util.AnalysisException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts lines of text with bounded memory.
+ * <p>
+ * Added lines are buffered in memory. Once the buffer is full, it is
+ * sorted and spilled to a temporary file as a sorted run, and the runs
+ * are merged when the sorted lines are requested.
+ */
+class ExternalSorter implements AutoCloseable {
+
+    private final Comparator<String> comparator;
+
+    /**
+     * Maximum number of lines buffered in memory.
+     */
+    private final int runSize;
+
+    private final List<String> buffer = new ArrayList<>();
+
+    /**
+     * Temporary files of the spilled sorted runs.
+     */
+    private final List<Path> runs = new ArrayList<>();
+
+    private final List<BufferedReader> readers = new ArrayList<>();
+
+    ExternalSorter(Comparator<String> comparator, int runSize) {
+        this.comparator = comparator;
+        this.runSize = runSize;
+    }
+
+    /**
+     * Adds a line to be sorted.
+     */
+    void add(String line) {
+        buffer.add(line);
+        if (buffer.size() >= runSize) {
+            spill();
+        }
+    }
+
+    /**
+     * @return an iterator over all added lines in sorted order.
+     * No line can be added after this call.
+     */
+    Iterator<String> sorted() {
+        buffer.sort(comparator);
+        if (runs.isEmpty()) {
+            return buffer.iterator();
+        }
+        List<Iterator<String>> sources = new ArrayList<>(runs.size() + 1);
+        sources.add(buffer.iterator());
+        try {
+            for (Path run : runs) {
+                BufferedReader reader = Files.newBufferedReader(
+                        run, StandardCharsets.UTF_8);
+                readers.add(reader);
+                sources.add(reader.lines().iterator());
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to read sorted run", e);
+        }
+        return new MergingIterator(sources);
+    }
+
+    /**
+     * Sorts the buffered lines and writes them to a new run.
+     */
+    private void spill() {
+        buffer.sort(comparator);
+        try {
+            Path run = Files.createTempFile("tai-e-sort", ".run");
+            runs.add(run);
+            try (BufferedWriter writer = Files.newBufferedWriter(
+                    run, StandardCharsets.UTF_8)) {
+                for (String line : buffer) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write sorted run", e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Releases the buffered lines and deletes the temporary files.
+     */
+    @Override
+    public void close() {
+        buffer.clear();
+        try {
+            for (BufferedReader reader : readers) {
+                reader.close();
+            }
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to delete sorted runs", e);
+        } finally {
+            readers.clear();
+            runs.clear();
+        }
+    }
+
+    /**
+     * K-way merge of sorted iterators.
+     */
+    private class MergingIterator implements Iterator<String> {
+
+        private record Head(String line, Iterator<String> source) {
+        }
+
+        private final PriorityQueue<Head> heads;
+
+        private MergingIterator(List<Iterator<String>> sources) {
+            heads = new PriorityQueue<>(sources.size(),
+                    (h1, h2) -> comparator.compare(h1.line(), h2.line()));
+            sources.forEach(this::advance);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.source());
+            return head.line();
+        }
+
+        private void advance(Iterator<String> source) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+    }
+}
@@ -26,38 +26,46 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.cs.PTAStatistics;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
 import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Streams;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static pascal.taie.util.collection.CollectionUtils.sum;
 
 /**
  * Dump points-to set to file or compare the analysis result with
  * the ones read from input file.
- * Currently, the compare functionality is mainly for testing purpose.
- * It is not efficient and not recommended applying on large program.
+ * <p>
+ * Points-to sets are dumped in sorted order with bounded memory, and
+ * compared by merging them with the (sorted) input file. If the name of
+ * the output/input file ends with {@code .gz}, the file is compressed
+ * by gzip.
  */
 public class ResultProcessor {
 
@@ -72,6 +80,22 @@ public class ResultProcessor {
 
     private static final DecimalFormat formatter = new DecimalFormat("#,####");
 
+    /**
+     * Suffix of files compressed by gzip.
+     */
+    private static final String GZIP_SUFFIX = ".gz";
+
+    /**
+     * Size of buffers for reading and writing files.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Maximum number of entries sorted in memory at once. More entries
+     * are sorted by external merge.
+     */
+    private static final int SORT_RUN_SIZE = 1 << 18;
+
     public static void process(AnalysisOptions options,
                                PointerAnalysisResult result) {
         printStatistics(result);
@@ -80,7 +104,7 @@ public class ResultProcessor {
             return;
         }
         String file = options.getString("file");
-        boolean taintEnabled = options.getString("taint-config") != null;
+        boolean taintEnabled = options.get("taint-config") != null;
         switch (action) {
             case "dump":
                 dumpPointsToSet(result, file, taintEnabled);
@@ -100,16 +124,32 @@ public class ResultProcessor {
     private static void printStatistics(PointerAnalysisResult result) {
         int varInsens = result.getVars().size();
         int varSens = result.getCSVars().size();
-        int vptSizeInsens = sum(result.getVars(), v -> result.getPointsToSet(v).size());
-        ToIntFunction<Pointer> getSize = p -> p.getPointsToSet().size();
-        int vptSizeSens = sum(result.getCSVars(), getSize);
-        int sfptSizeSens = sum(result.getStaticFields(), getSize);
-        int ifptSizeSens = sum(result.getInstanceFields(), getSize);
-        int aptSizeSens = sum(result.getArrayIndexes(), getSize);
-        int reachableInsens = result.getCallGraph().getNumberOfMethods();
-        int reachableSens = result.getCSCallGraph().getNumberOfMethods();
-        int callEdgeInsens = (int) result.getCallGraph().edges().count();
-        int callEdgeSens = (int) result.getCSCallGraph().edges().count();
+        PTAStatistics stats = result.getResult(PTAStatistics.class.getName());
+        long vptSizeInsens, vptSizeSens, sfptSizeSens, ifptSizeSens, aptSizeSens;
+        long reachableInsens, reachableSens, callEdgeInsens, callEdgeSens;
+        if (stats != null) {
+            // statistics maintained by the solver, no need to traverse the result
+            vptSizeInsens = stats.getCIVarPointsTo();
+            vptSizeSens = stats.getVarPointsTo();
+            sfptSizeSens = stats.getStaticFieldPointsTo();
+            ifptSizeSens = stats.getInstanceFieldPointsTo();
+            aptSizeSens = stats.getArrayPointsTo();
+            reachableInsens = stats.getCIReachableMethods();
+            reachableSens = stats.getReachableMethods();
+            callEdgeInsens = stats.getCICallEdges();
+            callEdgeSens = stats.getCallEdges();
+        } else {
+            vptSizeInsens = sum(result.getVars(), v -> result.getPointsToSet(v).size());
+            ToIntFunction<Pointer> getSize = p -> p.getPointsToSet().size();
+            vptSizeSens = sum(result.getCSVars(), getSize);
+            sfptSizeSens = sum(result.getStaticFields(), getSize);
+            ifptSizeSens = sum(result.getInstanceFields(), getSize);
+            aptSizeSens = sum(result.getArrayIndexes(), getSize);
+            reachableInsens = result.getCallGraph().getNumberOfMethods();
+            reachableSens = result.getCSCallGraph().getNumberOfMethods();
+            callEdgeInsens = result.getCallGraph().edges().count();
+            callEdgeSens = result.getCSCallGraph().edges().count();
+        }
         System.out.println("-------------- Pointer analysis statistics: --------------");
         System.out.printf("%-30s%s (insens) / %s (sens)%n", "#var pointers:",
                 format(varInsens), format(varSens));
@@ -128,7 +168,7 @@ public class ResultProcessor {
         System.out.println("----------------------------------------");
     }
 
-    private static String format(int i) {
+    private static String format(long i) {
         return formatter.format(i);
     }
 
@@ -136,11 +176,12 @@ public class ResultProcessor {
                                         String output, boolean taintEnabled) {
         PrintStream out;
         if (output != null) {  // if output file is given, then dump to the file
-            File outFile = new File(output);
+            Path outFile = Path.of(output);
             try {
-                out = new PrintStream(new FileOutputStream(outFile));
+                out = new PrintStream(openOutput(outFile),
+                        false, StandardCharsets.UTF_8);
                 logger.info("Dumping points-to set to {} ...", outFile);
-            } catch (FileNotFoundException e) {
+            } catch (IOException e) {
                 throw new RuntimeException("Failed to open output file", e);
             }
         } else {  // otherwise, dump to System.out
@@ -155,67 +196,172 @@ public class ResultProcessor {
         }
         if (out != System.out) {
             out.close();
+        } else {
+            out.flush();
+        }
+        if (out.checkError()) {
+            throw new AnalysisException("Failed to dump points-to set to " + output);
         }
     }
 
+    private static OutputStream openOutput(Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        if (file.toString().endsWith(GZIP_SUFFIX)) {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        } else {
+            return new BufferedOutputStream(out, BUFFER_SIZE);
+        }
+    }
+
+    private static BufferedReader openInput(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(
+                Files.newInputStream(file), BUFFER_SIZE);
+        if (file.toString().endsWith(GZIP_SUFFIX)) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
     private static void dumpPointers(PrintStream out, Collection<? extends Pointer> pointers, String desc) {
         out.println(HEADER + desc);
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> out.println(p + SEP + toString(p.getPointsToSet())));
+        try (ExternalSorter sorter = sortPointers(pointers)) {
+            sorter.sorted().forEachRemaining(out::println);
+        }
         out.println();
     }
 
+    /**
+     * @return a sorter containing the entries (pointer -> points-to set)
+     * of given pointers.
+     */
+    private static ExternalSorter sortPointers(Collection<? extends Pointer> pointers) {
+        ExternalSorter sorter = new ExternalSorter(
+                ResultProcessor::compareEntries, SORT_RUN_SIZE);
+        pointers.forEach(p ->
+                sorter.add(p + SEP + toString(p.getPointsToSet())));
+        return sorter;
+    }
+
+    /**
+     * Compares two entries (pointer -> points-to set) by their pointers.
+     * This is consistent with comparing the string representations of
+     * the pointers, without creating substrings.
+     */
+    private static int compareEntries(String e1, String e2) {
+        int n1 = e1.indexOf(SEP);
+        int n2 = e2.indexOf(SEP);
+        int n = Math.min(n1, n2);
+        for (int i = 0; i < n; ++i) {
+            char c1 = e1.charAt(i);
+            char c2 = e2.charAt(i);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return n1 - n2;
+    }
+
+    private static String pointerOf(String entry) {
+        return entry.substring(0, entry.indexOf(SEP));
+    }
+
+    private static String pointsToSetOf(String entry) {
+        return entry.substring(entry.indexOf(SEP) + SEP.length());
+    }
+
     private static void comparePointsToSet(PointerAnalysisResult result, String input) {
         logger.info("Comparing points-to set with {} ...", input);
-        var inputs = readPointsToSets(input);
-        Map<String, Pointer> pointers = new LinkedHashMap<>();
-        addPointers(pointers, result.getCSVars());
-        addPointers(pointers, result.getStaticFields());
-        addPointers(pointers, result.getInstanceFields());
-        addPointers(pointers, result.getArrayIndexes());
+        Path file = Path.of(input);
         List<String> mismatches = new ArrayList<>();
-        pointers.forEach((pointerStr, pointer) -> {
-            String given = toString(pointer.getPointsToSet());
-            String expected = inputs.get(pointerStr);
-            if (!given.equals(expected)) {
-                mismatches.add(String.format("%s, expected: %s, given: %s",
-                        pointerStr, expected, given));
-            }
-        });
-        inputs.keySet()
-                .stream()
-                .filter(Predicate.not(pointers::containsKey))
-                .forEach(pointerStr -> {
-                    String expected = inputs.get(pointerStr);
-                    mismatches.add(String.format("%s, expected: %s, given: null",
-                            pointerStr, expected));
-                });
+        comparePointers(file, result.getCSVars(), "variables", mismatches);
+        comparePointers(file, result.getStaticFields(), "static fields", mismatches);
+        comparePointers(file, result.getInstanceFields(), "instance fields", mismatches);
+        comparePointers(file, result.getArrayIndexes(), "array indexes", mismatches);
         if (!mismatches.isEmpty()) {
             throw new AnalysisException("Mismatches of points-to set\n" +
                     String.join("\n", mismatches));
         }
     }
 
-    private static Map<String, String> readPointsToSets(String input) {
-        try {
-            Map<String, String> result = new LinkedHashMap<>();
-            Files.lines(Path.of(input))
-                    .filter(line -> line.contains(SEP))
-                    .map(line -> line.split(SEP))
-                    .forEach(s -> result.put(s[0], s[1]));
-            return result;
+    private static void comparePointers(
+            Path input, Collection<? extends Pointer> pointers,
+            String desc, List<String> mismatches) {
+        try (ExternalSorter sorter = sortPointers(pointers)) {
+            compareSection(input, desc, sorter.sorted(), mismatches);
+        }
+    }
+
+    /**
+     * Compares given sorted entries (pointer -> points-to set) with
+     * the section for given description in the input. The entries of
+     * each section in the input are sorted as they are dumped, so the
+     * section and the given entries are merged in one pass.
+     * The input is reopened for each section, thus the sections
+     * may appear in any order.
+     */
+    static void compareSection(Path input, String desc,
+                               Iterator<String> givens, List<String> mismatches) {
+        try (BufferedReader reader = openInput(input)) {
+            boolean found = skipToSection(reader, desc);
+            String expected = found ? nextEntry(reader) : null;
+            String given = givens.hasNext() ? givens.next() : null;
+            while (expected != null || given != null) {
+                int cmp = expected == null ? -1
+                        : given == null ? 1 : compareEntries(given, expected);
+                if (cmp == 0) {
+                    if (!given.equals(expected)) {
+                        mismatches.add(String.format("%s, expected: %s, given: %s",
+                                pointerOf(given), pointsToSetOf(expected),
+                                pointsToSetOf(given)));
+                    }
+                    expected = nextEntry(reader);
+                    given = givens.hasNext() ? givens.next() : null;
+                } else if (cmp < 0) {
+                    mismatches.add(String.format("%s, expected: null, given: %s",
+                            pointerOf(given), pointsToSetOf(given)));
+                    given = givens.hasNext() ? givens.next() : null;
+                } else {
+                    mismatches.add(String.format("%s, expected: %s, given: null",
+                            pointerOf(expected), pointsToSetOf(expected)));
+                    expected = nextEntry(reader);
+                }
+            }
         } catch (IOException e) {
             throw new AnalysisException(
                     "Failed to read points-to set from " + input, e);
         }
     }
 
-    private static void addPointers(Map<String, Pointer> map,
-                                    Collection<? extends Pointer> pointers) {
-        pointers.stream()
-                .sorted(Comparator.comparing(Pointer::toString))
-                .forEach(p -> map.put(p.toString(), p));
+    /**
+     * Skips the input to the beginning of the section for given description.
+     *
+     * @return true if the section is found, otherwise false.
+     */
+    private static boolean skipToSection(BufferedReader reader, String desc)
+            throws IOException {
+        String header = HEADER + desc;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.equals(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the next entry of current section in the input,
+     * or null if the section ends.
+     */
+    private static String nextEntry(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null && !line.isEmpty()) {
+            if (line.contains(SEP)) {
+                return line;
+            }
+        }
+        return null;
     }
 
     private static String toString(PointsToSet pts) {
@@ -233,6 +379,10 @@ public class ResultProcessor {
      * @return taint analysis result.
      */
     private static Set<TaintFlow> getTaintFlows(PointerAnalysisResult result) {
+        Set<TaintFlow> taintFlows = result.getResult(TaintAnalysiss.class.getName());
+        if (taintFlows != null) {
+            return taintFlows;
+        }
         for (String key : result.getKeys()) {
             if (key.contains("Taint")) { // adapt different taint analyses
                 return result.getResult(key);
@@ -266,9 +416,9 @@ public class ResultProcessor {
     }
 
     private static List<String> readTaintFlows(String input) {
-        try {
+        try (BufferedReader reader = openInput(Path.of(input))) {
             List<String> taintFlows = new ArrayList<>();
-            Files.lines(Path.of(input))
+            reader.lines()
                     .filter(line -> line.startsWith("TaintFlow{") && line.contains(SEP))
                     .forEach(taintFlows::add);
             return taintFlows;
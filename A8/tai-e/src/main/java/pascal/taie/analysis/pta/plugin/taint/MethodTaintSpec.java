@@ -0,0 +1,113 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Taint specification of a method, i.e., all sources, sinks and
+ * taint transfers in {@link TaintConfig} that involve the method.
+ */
+class MethodTaintSpec {
+
+    private static final int[] NO_INDEXES = new int[0];
+
+    /**
+     * Types of the taint objects generated by the method as a source.
+     */
+    private final Set<Type> sourceTypes = Sets.newHybridSet();
+
+    /**
+     * Indexes of the sensitive arguments of the method as a sink.
+     */
+    private int[] sinkIndexes = NO_INDEXES;
+
+    /**
+     * Indexes of the sanitized variables of the method as a sanitizer.
+     */
+    private int[] sanitizedIndexes = NO_INDEXES;
+
+    /**
+     * Taint transfers caused by the method.
+     */
+    private final List<TaintTransfer> transfers = new ArrayList<>();
+
+    void addSource(Source source) {
+        sourceTypes.add(source.type());
+    }
+
+    void addSink(Sink sink) {
+        sinkIndexes = Arrays.copyOf(sinkIndexes, sinkIndexes.length + 1);
+        sinkIndexes[sinkIndexes.length - 1] = sink.index();
+    }
+
+    void addSanitizer(Sanitizer sanitizer) {
+        sanitizedIndexes = Arrays.copyOf(sanitizedIndexes, sanitizedIndexes.length + 1);
+        sanitizedIndexes[sanitizedIndexes.length - 1] = sanitizer.index();
+    }
+
+    void addTransfer(TaintTransfer transfer) {
+        transfers.add(transfer);
+    }
+
+    /**
+     * @return true if the method is a source which generates
+     * taint objects of given type.
+     */
+    boolean isSource(Type type) {
+        return sourceTypes.contains(type);
+    }
+
+    /**
+     * @return indexes of the sensitive arguments of the method.
+     */
+    int[] getSinkIndexes() {
+        return sinkIndexes;
+    }
+
+    /**
+     * @return true if taints never flow through the variable of given
+     * index, i.e., the method sanitizes the variable.
+     */
+    boolean isSanitized(int index) {
+        for (int sanitizedIndex : sanitizedIndexes) {
+            if (sanitizedIndex == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return taint transfers caused by the method.
+     */
+    List<TaintTransfer> getTransfers() {
+        return transfers;
+    }
+}
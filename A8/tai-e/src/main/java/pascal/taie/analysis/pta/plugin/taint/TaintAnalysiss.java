@@ -25,7 +25,6 @@ package pascal.taie.analysis.pta.plugin.taint;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
-import pascal.taie.analysis.pta.PointerAnalysisResult;
 import pascal.taie.analysis.pta.core.cs.context.Context;
 import pascal.taie.analysis.pta.core.cs.element.CSManager;
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
@@ -35,23 +34,54 @@ import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.analysis.pta.cs.Solver;
 import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.analysis.pta.pts.PointsToSetFactory;
+import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
-import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
 
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Predicate;
 
 public class TaintAnalysiss {
 
     private static final Logger logger = LogManager.getLogger(TaintAnalysiss.class);
 
+    /**
+     * Key of the result which maps the path of each taint config file
+     * to the taint flows detected for that configuration.
+     */
+    public static final String FLOWS_BY_CONFIG =
+            TaintAnalysiss.class.getName() + "#flowsByConfig";
+
+    /**
+     * Index of the base variable of a call, used with sanitizers.
+     */
+    public static final int BASE = TaintTransfer.BASE;
+
+    /**
+     * Index of the result variable of a call, used with sanitizers.
+     */
+    public static final int RESULT = TaintTransfer.RESULT;
+
     private final TaintManager manager;
 
-    private final TaintConfig config;
+    /**
+     * Taint configurations analyzed together. The index of a configuration
+     * in this list is its config id, which is carried by the taint objects
+     * generated by its sources.
+     */
+    private final List<TaintConfig> configs = new ArrayList<>();
+
+    /**
+     * Paths of the files of {@link #configs}.
+     */
+    private final List<String> configPaths;
 
     private final Solver solver;
 
@@ -59,22 +89,131 @@ public class TaintAnalysiss {
 
     private final Context emptyContext;
 
-    private ArgsTaintPointerFlowGraph argsTaintPointerFlowGraph;
+    /**
+     * Taint transfer edges of each taint configuration.
+     */
+    private final List<ArgsTaintPointerFlowGraph> argsTaintPointerFlowGraphs
+            = new ArrayList<>();
+
+    /**
+     * Map from a pointer to the sink arguments it represents.
+     */
+    private final MultiMap<Pointer, SinkArg> sinkArgs = Maps.newMultiMap();
+
+    /**
+     * Taint flows detected so far.
+     */
+    private final Set<TaintFlow> taintFlows = new TreeSet<>();
+
+    /**
+     * Taint flows detected so far for each taint configuration.
+     */
+    private final List<Set<TaintFlow>> configTaintFlows = new ArrayList<>();
+
+    /**
+     * Stream of detected taint flows, or null if flows are not streamed.
+     */
+    private final TaintFlowWriter flowWriter;
+
+    /**
+     * Number of taint flows after which the analysis stops early,
+     * or 0 if the analysis does not stop on the number of flows.
+     */
+    private final int stopAfterFlows;
+
+    /**
+     * Sink methods on which the analysis stops early once a flow to
+     * any of them is detected.
+     */
+    private final Set<JMethod> stopAtSinks;
+
+    private boolean stopped;
 
-    private Set<Pair<Invoke, Pair<CSVar, Integer>>> sinkInfos;
+    /**
+     * Recorder of witness paths of taint flows, or null if witness
+     * paths are not recorded.
+     */
+    private final TaintPaths paths;
+
+    /**
+     * Propagator of taint objects when they are kept separate from
+     * points-to sets, or null if taint objects are propagated as
+     * ordinary objects in points-to sets.
+     */
+    private final TaintPropagator propagator;
 
     public TaintAnalysiss(Solver solver) {
         manager = new TaintManager();
         this.solver = solver;
         csManager = solver.getCSManager();
         emptyContext = solver.getContextSelector().getEmptyContext();
-        argsTaintPointerFlowGraph = new ArgsTaintPointerFlowGraph();
-        sinkInfos = new HashSet<>();
-        config = TaintConfig.readConfig(
-                solver.getOptions().getString("taint-config"),
-                World.get().getClassHierarchy(),
-                World.get().getTypeSystem());
-        logger.info(config);
+        AnalysisOptions options = solver.getOptions();
+        configPaths = readConfigPaths(options.get("taint-config"));
+        for (String path : configPaths) {
+            TaintConfig config = TaintConfig.readConfig(path,
+                    World.get().getClassHierarchy(),
+                    World.get().getTypeSystem());
+            logger.info(config);
+            configs.add(config);
+            argsTaintPointerFlowGraphs.add(new ArgsTaintPointerFlowGraph());
+            configTaintFlows.add(new TreeSet<>());
+        }
+        paths = options.getBooleanOrDefault("taint-paths", false) ?
+                new TaintPaths() : null;
+        propagator = options.getBooleanOrDefault("separate-taint", false) ?
+                new TaintPropagator(manager, solver::getPFGSuccsOf,
+                        sinkArgs::containsKey, this::onNewSinkTaint, paths) : null;
+        String stream = options.getString("taint-flows-stream");
+        flowWriter = stream != null ? new TaintFlowWriter(Path.of(stream)) : null;
+        stopAfterFlows = options.get("stop-after-flows") instanceof Integer n ? n : 0;
+        stopAtSinks = readStopAtSinks(options.get("stop-at-sinks"));
+    }
+
+    /**
+     * @param paths path, or list of paths, of the taint config files.
+     *              Multiple paths may also be given in one string
+     *              separated by commas.
+     * @return the paths of the taint config files.
+     */
+    private static List<String> readConfigPaths(Object paths) {
+        List<?> values = paths instanceof List<?> list ? list : List.of(paths);
+        List<String> result = new ArrayList<>();
+        for (Object value : values) {
+            for (String path : value.toString().split(",")) {
+                if (!path.isBlank()) {
+                    result.add(path.strip());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param sinkSigs signature, or list of signatures, of the sink methods
+     * @return the sink methods on which the analysis stops early.
+     */
+    private static Set<JMethod> readStopAtSinks(Object sinkSigs) {
+        List<?> sigs = sinkSigs instanceof List<?> list ? list :
+                sinkSigs != null ? List.of(sinkSigs) : List.of();
+        Set<JMethod> sinks = new HashSet<>();
+        for (Object sig : sigs) {
+            // the analysis options given in command line turn each ':'
+            // into ': ', which adds a space to the method signatures
+            String signature = sig.toString().replaceAll("\\s+", " ");
+            JMethod method = World.get().getClassHierarchy().getMethod(signature);
+            if (method != null) {
+                sinks.add(method);
+            } else {
+                logger.warn("Cannot find sink method '{}'", sig);
+            }
+        }
+        return sinks;
+    }
+
+    /**
+     * Represents the sensitive argument of a sink call.
+     */
+    private record SinkArg(Invoke sinkCall, JMethod sink, int index, int configId) {
     }
 
     static class ArgsTaintPointerFlowGraph {
@@ -104,175 +243,450 @@ public class TaintAnalysiss {
 
     // TODO - finish me
     public void transferTaintOfArgs(Pointer pointer, PointsToSet diffPTS) {
+        if (propagator != null) {
+            // taint objects never reside in points-to sets, but the new
+            // objects may change the types of the transferred taints
+            propagator.onNewPointsTo(pointer, diffPTS);
+            return;
+        }
+        List<CSObj> taints = new ArrayList<>();
         for (CSObj csObj : diffPTS.getObjects()) {
             if (manager.isTaint(csObj.getObject())) {
-                for (Pointer success : argsTaintPointerFlowGraph.getSuccsOf(pointer)) {
-                    changeTaintTypeAndPropagate(csObj, success);
+                taints.add(csObj);
+                if (paths != null) {
+                    // the solver propagates the taint to all PFG successors
+                    for (Pointer succ : solver.getPFGSuccsOf(pointer)) {
+                        paths.recordEdge(pointer, csObj.getObject(),
+                                succ, csObj.getObject());
+                    }
                 }
+                onNewSinkTaint(pointer, csObj.getObject());
             }
         }
+        if (!taints.isEmpty()) {
+            for (int configId = 0; configId < configs.size(); ++configId) {
+                Set<Pointer> succs = argsTaintPointerFlowGraphs.get(configId)
+                        .getSuccsOf(pointer);
+                if (!succs.isEmpty()) {
+                    List<CSObj> configTaints = filter(taints, configId);
+                    if (!configTaints.isEmpty()) {
+                        for (Pointer success : succs) {
+                            changeTaintTypeAndPropagate(pointer, configTaints, success);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the taints in given list that belong to given configuration.
+     */
+    private List<CSObj> filter(List<CSObj> taints, int configId) {
+        if (configs.size() == 1) {
+            return taints;
+        }
+        List<CSObj> result = new ArrayList<>(taints.size());
+        for (CSObj taint : taints) {
+            if (manager.getConfigId(taint.getObject()) == configId) {
+                result.add(taint);
+            }
+        }
+        return result;
     }
 
-    public void analyzeTaintOnCall(Invoke stmt, CSVar csBase, CSObj recvObj) {
+    public void analyzeTaintOnCall(Invoke stmt, JMethod callee,
+                                   CSVar csBase, CSObj recvObj) {
+        for (int configId = 0; configId < configs.size(); ++configId) {
+            MethodTaintSpec spec = configs.get(configId).getSpec(callee);
+            if (spec != null) {
+                analyzeTaintOnCall(stmt, callee, csBase, recvObj, spec, configId);
+            }
+        }
+    }
+
+    private void analyzeTaintOnCall(Invoke stmt, JMethod callee,
+                                    CSVar csBase, CSObj recvObj,
+                                    MethodTaintSpec spec, int configId) {
         Context curCtx = csBase.getContext();
         // result var
         Var result = stmt.getLValue();
         if (result != null) {
             CSVar csResult = csManager.getCSVar(curCtx, result);
             /* analyze source */
-            analyzeSource(stmt, recvObj, csResult);
+            analyzeSource(stmt, callee, spec, configId, csResult);
             /* analyze taint transfer */
-            analyzeBaseToResult(stmt, csBase, recvObj, csResult);
-            analyzeArgToBase(stmt, csBase, recvObj);
-            analyzeArgToResult(stmt, recvObj, csResult);
-            /* analyze sink */
-            analyzeSink(stmt, recvObj, curCtx);
+            analyzeBaseToResult(spec, configId, csBase, csResult);
+            analyzeArgToBase(stmt, spec, configId, csBase, recvObj);
+            analyzeArgToResult(stmt, spec, configId, csResult);
         } else {
             /* analyze taint transfer */
-            analyzeArgToBase(stmt, csBase, recvObj);
-            /* analyze sink */
-            analyzeSink(stmt, recvObj, curCtx);
+            analyzeArgToBase(stmt, spec, configId, csBase, recvObj);
         }
+        /* analyze sink */
+        analyzeSink(stmt, callee, spec, configId, curCtx);
     }
 
 
-    public void analyzeTaintOnStaticCall(Invoke stmt, Context curCtx) {
+    public void analyzeTaintOnStaticCall(Invoke stmt, JMethod callee, Context curCtx) {
+        for (int configId = 0; configId < configs.size(); ++configId) {
+            MethodTaintSpec spec = configs.get(configId).getSpec(callee);
+            if (spec != null) {
+                analyzeTaintOnStaticCall(stmt, callee, curCtx, spec, configId);
+            }
+        }
+    }
+
+    private void analyzeTaintOnStaticCall(Invoke stmt, JMethod callee, Context curCtx,
+                                          MethodTaintSpec spec, int configId) {
         // result var
         Var result = stmt.getLValue();
         if (result != null) {
             CSVar csResult = csManager.getCSVar(curCtx, result);
             /* analyze source */
-            analyzeSource(stmt, null, csResult);
+            analyzeSource(stmt, callee, spec, configId, csResult);
             /* analyze taint transfer */
-            analyzeArgToResult(stmt, null, csResult);
-            /* analyze sink */
-            analyzeSink(stmt, null, curCtx);
-        } else {
-            /* analyze sink */
-            analyzeSink(stmt, null, curCtx);
+            analyzeArgToResult(stmt, spec, configId, csResult);
         }
+        /* analyze sink */
+        analyzeSink(stmt, callee, spec, configId, curCtx);
     }
 
-    private void analyzeSource(Invoke invokeStmt, CSObj recv, CSVar csResult) {
-        JMethod method = solver.resolveCallee(recv, invokeStmt);
-        Type taintType = method.getReturnType();
-
-        Source source = new Source(method, taintType);
-        if (config.getSources().contains(source)) { // TODO may fail due to different reference with the same value
-            Obj taintObj = manager.makeTaint(invokeStmt, taintType);
-            CSObj taintCSObj = csManager.getCSObj(emptyContext, taintObj);
-            solver.addWork(csResult, PointsToSetFactory.make(taintCSObj));
+    private void analyzeSource(Invoke invokeStmt, JMethod callee,
+                               MethodTaintSpec spec, int configId, CSVar csResult) {
+        Type taintType = callee.getReturnType();
+        if (spec.isSource(taintType)) {
+            Obj taintObj = manager.makeTaint(invokeStmt, taintType, configId);
+            if (paths != null) {
+                paths.recordSource(csResult, taintObj);
+            }
+            if (propagator != null) {
+                propagator.addTaint(csResult, taintObj);
+            } else {
+                CSObj taintCSObj = csManager.getCSObj(emptyContext, taintObj);
+                solver.addWork(csResult, PointsToSetFactory.make(taintCSObj));
+            }
         }
     }
 
-    private void analyzeBaseToResult(Invoke invokeStmt, CSVar csBase, CSObj recv, CSVar csResult) {
-        JMethod method = solver.resolveCallee(recv, invokeStmt);
+    private void analyzeBaseToResult(MethodTaintSpec spec, int configId,
+                                     CSVar csBase, CSVar csResult) {
         Type taintType = csResult.getType();
-
-        TaintTransfer baseToResult = new TaintTransfer(method, TaintTransfer.BASE, TaintTransfer.RESULT, taintType);
-        if (config.getTransfers().contains(baseToResult)) {
-            addArgsTaintPFGEdge(csBase, csResult);
+        for (TaintTransfer transfer : spec.getTransfers()) {
+            if (transfer.from() == TaintTransfer.BASE &&
+                    transfer.to() == TaintTransfer.RESULT &&
+                    transfer.type().equals(taintType)) {
+                addArgsTaintPFGEdge(csBase, csResult, configId);
+            }
         }
     }
 
-    private void analyzeArgToBase(Invoke invokeStmt, CSVar csBase, CSObj recv) {
-        JMethod method = solver.resolveCallee(recv, invokeStmt);
+    private void analyzeArgToBase(Invoke invokeStmt, MethodTaintSpec spec,
+                                  int configId, CSVar csBase, CSObj recv) {
         Type taintType = recv.getObject().getType();
-        Context curCtx = csBase.getContext();
+        for (TaintTransfer transfer : spec.getTransfers()) {
+            int argIdx = transfer.from();
+            if (argIdx >= 0 && argIdx < invokeStmt.getInvokeExp().getArgCount() &&
+                    transfer.to() == TaintTransfer.BASE &&
+                    transfer.type().equals(taintType)) {
+                Var arg = invokeStmt.getInvokeExp().getArg(argIdx);
+                CSVar csArg = csManager.getCSVar(csBase.getContext(), arg);
+                addArgsTaintPFGEdge(csArg, csBase, configId);
+            }
+        }
+    }
 
-        for (int argIdx = 0; argIdx < invokeStmt.getInvokeExp().getArgCount(); argIdx++) {
-            Var arg = invokeStmt.getInvokeExp().getArg(argIdx);
-            CSVar csArg = csManager.getCSVar(curCtx, arg);
+    private void analyzeArgToResult(Invoke invokeStmt, MethodTaintSpec spec,
+                                    int configId, CSVar csResult) {
+        Type taintType = csResult.getType();
+        for (TaintTransfer transfer : spec.getTransfers()) {
+            int argIdx = transfer.from();
+            if (argIdx >= 0 && argIdx < invokeStmt.getInvokeExp().getArgCount() &&
+                    transfer.to() == TaintTransfer.RESULT &&
+                    transfer.type().equals(taintType)) {
+                Var arg = invokeStmt.getInvokeExp().getArg(argIdx);
+                CSVar csArg = csManager.getCSVar(csResult.getContext(), arg);
+                addArgsTaintPFGEdge(csArg, csResult, configId);
+            }
+        }
+    }
 
-            TaintTransfer argToBase = new TaintTransfer(method, argIdx, TaintTransfer.BASE, taintType);
-            if (config.getTransfers().contains(argToBase)) {
-                addArgsTaintPFGEdge(csArg, csBase);
+    private void analyzeSink(Invoke invokeStmt, JMethod callee,
+                             MethodTaintSpec spec, int configId, Context curCtx) {
+        for (int argIdx : spec.getSinkIndexes()) {
+            if (argIdx < invokeStmt.getInvokeExp().getArgCount()) {
+                Var arg = invokeStmt.getInvokeExp().getArg(argIdx);
+                CSVar csArg = csManager.getCSVar(curCtx, arg);
+                SinkArg sinkArg = new SinkArg(invokeStmt, callee, argIdx, configId);
+                if (sinkArgs.put(csArg, sinkArg)) {
+                    // detect the taints which have reached the argument
+                    if (propagator != null) {
+                        propagator.getTaints(csArg).forEach(taint ->
+                                reportTaintFlow(csArg, taint, sinkArg));
+                    } else {
+                        for (CSObj csObj : csArg.getPointsToSet()) {
+                            if (manager.isTaint(csObj.getObject())) {
+                                reportTaintFlow(csArg, csObj.getObject(), sinkArg);
+                            }
+                        }
+                    }
+                }
             }
         }
     }
 
-    private void analyzeArgToResult(Invoke invokeStmt, CSObj recv, CSVar csResult) {
-        JMethod method = solver.resolveCallee(recv, invokeStmt);
-        Type taintType = csResult.getType();
-        Context curCtx = csResult.getContext();
+    /**
+     * Detects taint flows when a taint object reaches given pointer.
+     */
+    private void onNewSinkTaint(Pointer pointer, Obj taint) {
+        for (SinkArg sinkArg : sinkArgs.get(pointer)) {
+            reportTaintFlow(pointer, taint, sinkArg);
+        }
+    }
+
+    private void reportTaintFlow(Pointer pointer, Obj taint, SinkArg sinkArg) {
+        if (manager.getConfigId(taint) != sinkArg.configId()) {
+            // taints only flow to the sinks of their own configuration
+            return;
+        }
+        TaintFlow taintFlow = new TaintFlow(manager.getSourceCall(taint),
+                sinkArg.sinkCall(), sinkArg.index());
+        int configId = sinkArg.configId();
+        if (configTaintFlows.get(configId).add(taintFlow)) {
+            if (flowWriter != null) {
+                // a flow detected by several configurations is
+                // streamed once for each of them
+                flowWriter.write(taintFlow, configId, configPaths.get(configId));
+            }
+            if (taintFlows.add(taintFlow)) {
+                if (paths != null) {
+                    paths.recordSink(taintFlow, pointer, taint);
+                }
+                logger.info("Detected {}", taintFlow);
+                if (!stopped && ((stopAfterFlows > 0 && taintFlows.size() >= stopAfterFlows)
+                        || stopAtSinks.contains(sinkArg.sink()))) {
+                    logger.info("Stopping pointer analysis early after {} taint flow(s)",
+                            taintFlows.size());
+                    stopped = true;
+                }
+            }
+        }
+    }
 
-        for (int argIdx = 0; argIdx < invokeStmt.getInvokeExp().getArgCount(); argIdx++) {
-            Var arg = invokeStmt.getInvokeExp().getArg(argIdx);
-            CSVar csArg = csManager.getCSVar(curCtx, arg);
+    /**
+     * @return true if the pointer analysis should stop early, as the
+     * requested taint flows have been detected.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
 
-            TaintTransfer argToResult = new TaintTransfer(method, argIdx, TaintTransfer.RESULT, taintType);
-            if (config.getTransfers().contains(argToResult)) {
-                addArgsTaintPFGEdge(csArg, csResult);
+    /**
+     * Notifies a new edge (source -> target) of the pointer flow graph.
+     */
+    public void onNewPFGEdge(Pointer source, Pointer target) {
+        if (propagator != null) {
+            propagator.onNewPFGEdge(source, target);
+        } else if (paths != null) {
+            for (CSObj csObj : source.getPointsToSet()) {
+                if (manager.isTaint(csObj.getObject())) {
+                    paths.recordEdge(source, csObj.getObject(),
+                            target, csObj.getObject());
+                }
             }
         }
     }
 
-    private void analyzeSink(Invoke invokeStmt, CSObj recv, Context curCtx) {
-        JMethod method = solver.resolveCallee(recv, invokeStmt);
+    /**
+     * @return the predicate which tests if taint objects may be added to
+     * the points-to set of a variable directly, i.e., it is the base
+     * variable of a call to a method which transfers taints to its base,
+     * for the taint configs given in the options. It is available before
+     * any solver is created, e.g., to preprocess the program.
+     */
+    public static Predicate<Var> getTransferTargets(AnalysisOptions options) {
+        Object paths = options.get("taint-config");
+        if (paths == null) {
+            return var -> false;
+        }
+        List<TaintConfig> configs = new ArrayList<>();
+        for (String path : readConfigPaths(paths)) {
+            configs.add(TaintConfig.readConfig(path,
+                    World.get().getClassHierarchy(),
+                    World.get().getTypeSystem()));
+        }
+        Set<Subsignature> subsigs = getBaseTransferSubsigs(configs);
+        return var -> isTransferTarget(var, subsigs);
+    }
 
-        for (int argIdx = 0; argIdx < invokeStmt.getInvokeExp().getArgCount(); argIdx++) {
-            Var arg = invokeStmt.getInvokeExp().getArg(argIdx);
-            CSVar csArg = csManager.getCSVar(curCtx, arg);
+    private static Set<Subsignature> getBaseTransferSubsigs(
+            List<TaintConfig> configs) {
+        Set<Subsignature> subsigs = new HashSet<>();
+        for (TaintConfig config : configs) {
+            for (TaintTransfer transfer : config.getTransfers()) {
+                if (transfer.to() == TaintTransfer.BASE) {
+                    subsigs.add(transfer.method().getSubsignature());
+                }
+            }
+        }
+        return subsigs;
+    }
 
-            Sink sink = new Sink(method, argIdx);
-            if (config.getSinks().contains(sink)) {
-                sinkInfos.add(new Pair<>(invokeStmt, new Pair<>(csArg, argIdx)));
+    private static boolean isTransferTarget(
+            Var var, Set<Subsignature> baseTransferSubsigs) {
+        for (Invoke invoke : var.getInvokes()) {
+            if (baseTransferSubsigs.contains(
+                    invoke.getMethodRef().getSubsignature())) {
+                return true;
             }
         }
+        return false;
     }
 
-    public void onFinish() {
-        Set<TaintFlow> taintFlows = collectTaintFlows();
-        solver.getResult().storeResult(getClass().getName(), taintFlows);
+    /**
+     * @return true if given method sanitizes the variable of given index
+     * (an argument index, {@link #BASE} or {@link #RESULT})
+     * in any taint configuration.
+     */
+    public boolean isSanitized(JMethod method, int index) {
+        for (TaintConfig config : configs) {
+            MethodTaintSpec spec = config.getSpec(method);
+            if (spec != null && spec.isSanitized(index)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private Set<TaintFlow> collectTaintFlows() {
-        Set<TaintFlow> taintFlows = new TreeSet<>();
-        PointerAnalysisResult result = solver.getResult();
-        // TODO - finish me
-        // You could query pointer analysis results you need via variable result.
-        for (Pair<Invoke, Pair<CSVar, Integer>> sinkInfo : sinkInfos) {
-            Invoke sink = sinkInfo.first();
-            CSVar csArg = sinkInfo.second().first();
-            int argIdx = sinkInfo.second().second();
-
-            Set<CSObj> csArgPTS = result.getPointsToSet(csArg);
-            for (CSObj csObj : csArgPTS) {
-                if (manager.isTaint(csObj.getObject())) {
-                    Invoke source = manager.getSourceCall(csObj.getObject());
-                    TaintFlow taintFlow = new TaintFlow(source, sink, argIdx);
-                    taintFlows.add(taintFlow);
+    /**
+     * Notifies a new edge (source -> target) through the variable of
+     * given index sanitized by given method. The edge is absent in the
+     * PFG of the solver, and taints flow along it only if their
+     * configurations do not sanitize the variable.
+     */
+    public void onNewSanitizedPFGEdge(Pointer source, Pointer target,
+                                      JMethod method, int index) {
+        if (propagator != null) {
+            for (int configId = 0; configId < configs.size(); ++configId) {
+                MethodTaintSpec spec = configs.get(configId).getSpec(method);
+                if (spec == null || !spec.isSanitized(index)) {
+                    propagator.addConfigEdge(source, target, configId);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the objects in given points-to set which may flow from
+     * source to target through the variable of given index sanitized
+     * by given method, i.e., given objects without the taints of the
+     * configurations that sanitize the variable.
+     */
+    public PointsToSet sanitize(Pointer source, PointsToSet pts, Pointer target,
+                                JMethod method, int index) {
+        PointsToSet result = PointsToSetFactory.make();
+        for (CSObj csObj : pts) {
+            Obj obj = csObj.getObject();
+            if (!manager.isTaint(obj)) {
+                result.addObject(csObj);
+            } else {
+                MethodTaintSpec spec = configs.get(manager.getConfigId(obj))
+                        .getSpec(method);
+                if (spec == null || !spec.isSanitized(index)) {
+                    result.addObject(csObj);
+                    if (paths != null) {
+                        paths.recordEdge(source, obj, target, obj);
+                    }
                 }
             }
         }
-        return taintFlows;
+        return result;
+    }
+
+    /**
+     * @return the methods at which taints may flow into sinks or be
+     * transferred, i.e., sink methods and taint transfer methods.
+     */
+    public Set<JMethod> getSinkAndTransferMethods() {
+        Set<JMethod> methods = Sets.newSet();
+        for (TaintConfig config : configs) {
+            config.getSinks().forEach(sink -> methods.add(sink.method()));
+            config.getTransfers().forEach(transfer -> methods.add(transfer.method()));
+        }
+        return methods;
+    }
+
+    public void onFinish() {
+        if (flowWriter != null) {
+            flowWriter.close();
+        }
+        solver.getResult().storeResult(getClass().getName(), taintFlows);
+        Map<String, Set<TaintFlow>> flowsByConfig = new LinkedHashMap<>();
+        for (int configId = 0; configId < configs.size(); ++configId) {
+            flowsByConfig.merge(configPaths.get(configId),
+                    configTaintFlows.get(configId), (flows1, flows2) -> {
+                        Set<TaintFlow> merged = new TreeSet<>(flows1);
+                        merged.addAll(flows2);
+                        return merged;
+                    });
+        }
+        solver.getResult().storeResult(FLOWS_BY_CONFIG, flowsByConfig);
+        if (paths != null) {
+            solver.getResult().storeResult(TaintPaths.class.getName(), paths);
+        }
     }
 
     /**
      * Adds an edge "source -> target" to the args taint PFG.
      */
-    private void addArgsTaintPFGEdge(Pointer source, Pointer target) {
+    private void addArgsTaintPFGEdge(Pointer source, Pointer target, int configId) {
+        if (propagator != null) {
+            propagator.addTransferEdge(source, target, configId);
+            return;
+        }
         PointsToSet sourcePTS = source.getPointsToSet();
-        if (argsTaintPointerFlowGraph.addEdge(source, target) && (!sourcePTS.isEmpty())) {
+        if (argsTaintPointerFlowGraphs.get(configId).addEdge(source, target)
+                && (!sourcePTS.isEmpty())) {
+            List<CSObj> taints = new ArrayList<>();
             for (CSObj csObj : sourcePTS.getObjects()) {
-                if (manager.isTaint(csObj.getObject())) {
-                    changeTaintTypeAndPropagate(csObj, target);
+                if (manager.isTaint(csObj.getObject()) &&
+                        manager.getConfigId(csObj.getObject()) == configId) {
+                    taints.add(csObj);
                 }
             }
+            if (!taints.isEmpty()) {
+                changeTaintTypeAndPropagate(source, taints, target);
+            }
         }
     }
 
-    private void changeTaintTypeAndPropagate(CSObj sourceCSTaint, Pointer target) {
-        List<Type> targetTypes = new LinkedList<>();
-        for (CSObj targetCSObj : target.getPointsToSet().getObjects()) {
+    /**
+     * Transfers source taints to target. For each source taint, a taint
+     * object is made for every distinct type of the objects pointed to by
+     * target, and all such taint objects are propagated to target at once.
+     */
+    private void changeTaintTypeAndPropagate(
+            Pointer sourcePointer, List<CSObj> sourceCSTaints, Pointer target) {
+        Set<Type> targetTypes = Sets.newHybridSet();
+        for (CSObj targetCSObj : target.getPointsToSet()) {
             targetTypes.add(targetCSObj.getObject().getType());
         }
-        for (Type targetType : targetTypes) {
+        if (targetTypes.isEmpty()) {
+            return;
+        }
+        PointsToSet targetCSTaints = PointsToSetFactory.make();
+        for (CSObj sourceCSTaint : sourceCSTaints) {
             Invoke source = manager.getSourceCall(sourceCSTaint.getObject());
-            Obj targetTaint = manager.makeTaint(source, targetType);
-
-            CSObj targetCSTaint = csManager.getCSObj(emptyContext, targetTaint);
-            solver.addWork(target, PointsToSetFactory.make(targetCSTaint));
+            int configId = manager.getConfigId(sourceCSTaint.getObject());
+            for (Type targetType : targetTypes) {
+                Obj targetTaint = manager.makeTaint(source, targetType, configId);
+                if (paths != null) {
+                    paths.recordEdge(sourcePointer, sourceCSTaint.getObject(),
+                            target, targetTaint);
+                }
+                targetCSTaints.addObject(csManager.getCSObj(emptyContext, targetTaint));
+            }
         }
+        solver.addWork(target, targetCSTaints);
     }
 }
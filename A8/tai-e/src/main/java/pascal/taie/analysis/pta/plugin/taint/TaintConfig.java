@@ -35,14 +35,21 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.config.ConfigException;
 import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
 import pascal.taie.language.type.Type;
 import pascal.taie.language.type.TypeSystem;
 import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -67,11 +74,40 @@ class TaintConfig {
      */
     private final Set<TaintTransfer> transfers;
 
+    /**
+     * Set of sanitizers.
+     */
+    private final Set<Sanitizer> sanitizers;
+
+    /**
+     * Map from a method to its taint specification, compiled from
+     * the sources, sinks and transfers.
+     */
+    private final Map<JMethod, MethodTaintSpec> specs = new IdentityHashMap<>();
+
     private TaintConfig(Set<Source> sources, Set<Sink> sinks,
-                        Set<TaintTransfer> transfers) {
+                        Set<TaintTransfer> transfers, Set<Sanitizer> sanitizers) {
         this.sources = sources;
         this.sinks = sinks;
         this.transfers = transfers;
+        this.sanitizers = sanitizers;
+        sources.forEach(source -> getOrCreateSpec(source.method()).addSource(source));
+        sinks.forEach(sink -> getOrCreateSpec(sink.method()).addSink(sink));
+        sanitizers.forEach(sanitizer ->
+                getOrCreateSpec(sanitizer.method()).addSanitizer(sanitizer));
+        transfers.forEach(transfer -> {
+            MethodTaintSpec spec = getOrCreateSpec(transfer.method());
+            if (spec.isSanitized(transfer.from()) || spec.isSanitized(transfer.to())) {
+                logger.warn("Ignore taint transfer through sanitized variable: {}",
+                        transfer);
+            } else {
+                spec.addTransfer(transfer);
+            }
+        });
+    }
+
+    private MethodTaintSpec getOrCreateSpec(JMethod method) {
+        return specs.computeIfAbsent(method, m -> new MethodTaintSpec());
     }
 
     /**
@@ -119,6 +155,21 @@ class TaintConfig {
         return transfers;
     }
 
+    /**
+     * @return sanitizers in the configuration.
+     */
+    Set<Sanitizer> getSanitizers() {
+        return sanitizers;
+    }
+
+    /**
+     * @return taint specification of given method, or null if the method
+     * is irrelevant to taint analysis.
+     */
+    @Nullable MethodTaintSpec getSpec(JMethod method) {
+        return specs.get(method);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("TaintConfig:");
@@ -137,6 +188,11 @@ class TaintConfig {
             transfers.forEach(transfer ->
                     sb.append("  ").append(transfer).append("\n"));
         }
+        if (!sanitizers.isEmpty()) {
+            sb.append("\nsanitizers:\n");
+            sanitizers.forEach(sanitizer ->
+                    sb.append("  ").append(sanitizer).append("\n"));
+        }
         return sb.toString();
     }
 
@@ -162,7 +218,8 @@ class TaintConfig {
             Set<Source> sources = deserializeSources(node.get("sources"));
             Set<Sink> sinks = deserializeSinks(node.get("sinks"));
             Set<TaintTransfer> transfers = deserializeTransfers(node.get("transfers"));
-            return new TaintConfig(sources, sinks, transfers);
+            Set<Sanitizer> sanitizers = deserializeSanitizers(node.get("sanitizers"));
+            return new TaintConfig(sources, sinks, transfers, sanitizers);
         }
 
         /**
@@ -176,16 +233,10 @@ class TaintConfig {
             if (node instanceof ArrayNode arrayNode) {
                 Set<Source> sources = Sets.newSet(arrayNode.size());
                 for (JsonNode elem : arrayNode) {
-                    String methodSig = elem.get("method").asText();
-                    JMethod method = hierarchy.getMethod(methodSig);
-                    if (method != null) {
-                        // if the method (given in config file) is absent in
-                        // the class hierarchy, just ignore it.
-                        Type type = typeSystem.getType(
-                                elem.get("type").asText());
-                        sources.add(new Source(method, type));
-                    } else {
-                        logger.warn("Cannot find source method '{}'", methodSig);
+                    List<JMethod> methods = resolveMethods(elem, "source");
+                    if (!methods.isEmpty()) {
+                        Type type = typeSystem.getType(elem.get("type").asText());
+                        methods.forEach(method -> sources.add(new Source(method, type)));
                     }
                 }
                 return Collections.unmodifiableSet(sources);
@@ -206,16 +257,9 @@ class TaintConfig {
             if (node instanceof ArrayNode arrayNode) {
                 Set<Sink> sinks = Sets.newSet(arrayNode.size());
                 for (JsonNode elem : arrayNode) {
-                    String methodSig = elem.get("method").asText();
-                    JMethod method = hierarchy.getMethod(methodSig);
-                    if (method != null) {
-                        // if the method (given in config file) is absent in
-                        // the class hierarchy, just ignore it.
-                        int index = elem.get("index").asInt();
-                        sinks.add(new Sink(method, index));
-                    } else {
-                        logger.warn("Cannot find sink method '{}'", methodSig);
-                    }
+                    int index = elem.get("index").asInt();
+                    resolveMethods(elem, "sink").forEach(method ->
+                            sinks.add(new Sink(method, index)));
                 }
                 return Collections.unmodifiableSet(sinks);
             } else {
@@ -235,18 +279,13 @@ class TaintConfig {
             if (node instanceof ArrayNode arrayNode) {
                 Set<TaintTransfer> transfers = Sets.newSet(arrayNode.size());
                 for (JsonNode elem : arrayNode) {
-                    String methodSig = elem.get("method").asText();
-                    JMethod method = hierarchy.getMethod(methodSig);
-                    if (method != null) {
-                        // if the method (given in config file) is absent in
-                        // the class hierarchy, just ignore it.
+                    List<JMethod> methods = resolveMethods(elem, "taint-transfer");
+                    if (!methods.isEmpty()) {
                         int from = TaintTransfer.toInt(elem.get("from").asText());
                         int to = TaintTransfer.toInt(elem.get("to").asText());
-                        Type type = typeSystem.getType(
-                                elem.get("type").asText());
-                        transfers.add(new TaintTransfer(method, from, to, type));
-                    } else {
-                        logger.warn("Cannot find taint-transfer method '{}'", methodSig);
+                        Type type = typeSystem.getType(elem.get("type").asText());
+                        methods.forEach(method ->
+                                transfers.add(new TaintTransfer(method, from, to, type)));
                     }
                 }
                 return Collections.unmodifiableSet(transfers);
@@ -255,5 +294,68 @@ class TaintConfig {
                 return Set.of();
             }
         }
+
+        /**
+         * Deserializes a {@link JsonNode} (assume it is an {@link ArrayNode})
+         * to a set of {@link Sanitizer}. The sanitized index is given by
+         * "index" (an argument index, "base" or "result"), and defaults
+         * to "result".
+         *
+         * @param node the node to be deserialized
+         * @return set of deserialized {@link Sanitizer}
+         */
+        private Set<Sanitizer> deserializeSanitizers(JsonNode node) {
+            if (node instanceof ArrayNode arrayNode) {
+                Set<Sanitizer> sanitizers = Sets.newSet(arrayNode.size());
+                for (JsonNode elem : arrayNode) {
+                    JsonNode indexNode = elem.get("index");
+                    int index = indexNode != null ?
+                            TaintTransfer.toInt(indexNode.asText()) :
+                            TaintTransfer.RESULT;
+                    resolveMethods(elem, "sanitizer").forEach(method ->
+                            sanitizers.add(new Sanitizer(method, index)));
+                }
+                return Collections.unmodifiableSet(sanitizers);
+            } else {
+                // if node is not an instance of ArrayNode, just return an empty set.
+                return Set.of();
+            }
+        }
+
+        /**
+         * Resolves the methods to which a rule applies. If the rule sets
+         * {@code overriders: true}, it also applies to all methods that
+         * override or implement the given method in the subclasses,
+         * subinterfaces and implementors of its declaring class.
+         *
+         * @param elem the node of the rule
+         * @param kind kind of the rule, used in warning message
+         * @return the methods to which the rule applies. If the method
+         * given in config file is absent in the class hierarchy,
+         * returns an empty list.
+         */
+        private List<JMethod> resolveMethods(JsonNode elem, String kind) {
+            String methodSig = elem.get("method").asText();
+            JMethod method = hierarchy.getMethod(methodSig);
+            if (method == null) {
+                logger.warn("Cannot find {} method '{}'", kind, methodSig);
+                return List.of();
+            }
+            JsonNode overriders = elem.get("overriders");
+            if (overriders == null || !overriders.asBoolean()) {
+                return List.of(method);
+            }
+            List<JMethod> methods = new ArrayList<>();
+            methods.add(method);
+            Subsignature subsig = method.getSubsignature();
+            for (JClass subclass : hierarchy.getAllSubclassesOf(
+                    method.getDeclaringClass(), false)) {
+                JMethod overrider = subclass.getDeclaredMethod(subsig);
+                if (overrider != null && !overrider.isAbstract()) {
+                    methods.add(overrider);
+                }
+            }
+            return methods;
+        }
     }
 }
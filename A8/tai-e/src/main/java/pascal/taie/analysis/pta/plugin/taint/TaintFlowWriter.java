@@ -0,0 +1,87 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.util.AnalysisException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes taint flows as newline-delimited JSON, one flow per line.
+ * Each record carries the id and file of the taint configuration
+ * that detected the flow.
+ * Each line is flushed once written, so that the flows can be consumed
+ * while the analysis is still running.
+ */
+class TaintFlowWriter implements AutoCloseable {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final BufferedWriter writer;
+
+    TaintFlowWriter(Path path) {
+        try {
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to open taint flow stream " + path, e);
+        }
+    }
+
+    /**
+     * Writes a taint flow detected by given taint configuration.
+     *
+     * @param configId   id of the configuration
+     * @param configPath path of the configuration file
+     */
+    void write(TaintFlow flow, int configId, String configPath) {
+        ObjectNode node = mapper.createObjectNode()
+                .put("source", CallGraphs.toString(flow.sourceCall()))
+                .put("sink", CallGraphs.toString(flow.sinkCall()))
+                .put("index", flow.index())
+                .put("config", configId)
+                .put("configFile", configPath);
+        try {
+            writer.write(mapper.writeValueAsString(node));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to write taint flow " + flow, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new AnalysisException("Failed to close taint flow stream", e);
+        }
+    }
+}
@@ -30,6 +30,11 @@ import pascal.taie.util.AnalysisException;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.TwoKeyMap;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Manages taint objects.
  */
@@ -37,18 +42,85 @@ class TaintManager {
 
     private static final String TAINT_DESC = "TaintObj";
 
-    private final TwoKeyMap<Invoke, Type, Obj> taints = Maps.newTwoKeyMap();
+    /**
+     * Taint objects of each taint configuration, indexed by config id.
+     */
+    private final List<TwoKeyMap<Invoke, Type, Obj>> taints = new ArrayList<>();
+
+    /**
+     * Taint objects in creation order, i.e., indexed by their taint indexes.
+     */
+    private final List<Obj> taintList = new ArrayList<>();
+
+    private final Map<Obj, Integer> taintIndexes = Maps.newMap();
+
+    /**
+     * Config ids of the taint objects, indexed by their taint indexes.
+     */
+    private final List<Integer> configIds = new ArrayList<>();
+
+    /**
+     * Taint indexes of the taint objects of each taint configuration.
+     */
+    private final List<BitSet> configTaints = new ArrayList<>();
 
     /**
      * Makes a taint object for given source and type.
      *
-     * @param source invocation to the source method, i.e., source call
-     * @param type   type of the taint object
+     * @param source   invocation to the source method, i.e., source call
+     * @param type     type of the taint object
+     * @param configId id of the taint configuration that specifies the source
      * @return the taint object for given source and type.
      */
-    Obj makeTaint(Invoke source, Type type) {
-        return taints.computeIfAbsent(source, type,
-                (s, t) -> new MockObj(TAINT_DESC, s, t));
+    Obj makeTaint(Invoke source, Type type, int configId) {
+        while (taints.size() <= configId) {
+            taints.add(Maps.newTwoKeyMap());
+            configTaints.add(new BitSet());
+        }
+        return taints.get(configId).computeIfAbsent(source, type, (s, t) -> {
+            // taint objects of the first configuration keep the plain
+            // description, so that single-config results are unchanged
+            String desc = configId == 0 ? TAINT_DESC : TAINT_DESC + configId;
+            Obj taint = new MockObj(desc, s, t);
+            int index = taintList.size();
+            taintIndexes.put(taint, index);
+            taintList.add(taint);
+            configIds.add(configId);
+            configTaints.get(configId).set(index);
+            return taint;
+        });
+    }
+
+    /**
+     * @return the id of the taint configuration that given taint object
+     * originates from.
+     */
+    int getConfigId(Obj taint) {
+        return configIds.get(getIndex(taint));
+    }
+
+    /**
+     * @return the indexes of all taint objects made so far for
+     * given taint configuration.
+     */
+    BitSet getTaintIndexes(int configId) {
+        return configId < configTaints.size() ?
+                configTaints.get(configId) : new BitSet();
+    }
+
+    /**
+     * @return the index of given taint object. The taint objects are
+     * indexed by consecutive integers from 0 in creation order.
+     */
+    int getIndex(Obj taint) {
+        return taintIndexes.get(taint);
+    }
+
+    /**
+     * @return the taint object of given index.
+     */
+    Obj getTaint(int index) {
+        return taintList.get(index);
     }
 
     /**
@@ -56,7 +128,7 @@ class TaintManager {
      */
     boolean isTaint(Obj obj) {
         return obj instanceof MockObj &&
-                ((MockObj) obj).getDescription().equals(TAINT_DESC);
+                ((MockObj) obj).getDescription().startsWith(TAINT_DESC);
     }
 
     /**
@@ -0,0 +1,110 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records how taint objects reach pointers, and reconstructs witness
+ * paths of taint flows on demand.
+ * <p>
+ * For each taint object that reaches a pointer, only the first recorded
+ * predecessor is kept, i.e., the pointer (and the taint object held by it)
+ * along whose PFG or taint transfer edge the taint object arrives. A witness
+ * path of a taint flow is obtained by walking the predecessors backward
+ * from the sink argument to the result variable of the source call.
+ */
+public class TaintPaths {
+
+    private record Node(Pointer pointer, Obj taint) {
+    }
+
+    /**
+     * Marks the nodes where taint objects are generated by source calls.
+     */
+    private static final Node ORIGIN = new Node(null, null);
+
+    private final Map<Node, Node> preds = Maps.newMap();
+
+    /**
+     * Map from a taint flow to the node where it is detected.
+     */
+    private final Map<TaintFlow, Node> sinkNodes = Maps.newMap();
+
+    /**
+     * Records that taint is generated and pointed to by given pointer.
+     */
+    void recordSource(Pointer pointer, Obj taint) {
+        preds.putIfAbsent(new Node(pointer, taint), ORIGIN);
+    }
+
+    /**
+     * Records that targetTaint may reach target from sourceTaint pointed
+     * to by source, via a PFG or taint transfer edge.
+     */
+    void recordEdge(Pointer source, Obj sourceTaint,
+                    Pointer target, Obj targetTaint) {
+        preds.putIfAbsent(new Node(target, targetTaint),
+                new Node(source, sourceTaint));
+    }
+
+    /**
+     * Records that taintFlow is detected as taint reaches given pointer.
+     */
+    void recordSink(TaintFlow taintFlow, Pointer pointer, Obj taint) {
+        sinkNodes.putIfAbsent(taintFlow, new Node(pointer, taint));
+    }
+
+    /**
+     * @return the pointers along a path which transfers the taint object
+     * of given taint flow from the source call to the sink call, starting
+     * from the pointer that receives the result of the source call.
+     * If the path is unknown, returns an empty list.
+     */
+    public List<Pointer> getPath(TaintFlow taintFlow) {
+        Node node = sinkNodes.get(taintFlow);
+        List<Pointer> path = new ArrayList<>();
+        Set<Node> visited = Sets.newSet();
+        while (node != null && node != ORIGIN) {
+            if (!visited.add(node)) { // should not happen
+                return List.of();
+            }
+            path.add(node.pointer());
+            node = preds.get(node);
+        }
+        if (node == null) {
+            return List.of();
+        }
+        Collections.reverse(path);
+        return Collections.unmodifiableList(path);
+    }
+}
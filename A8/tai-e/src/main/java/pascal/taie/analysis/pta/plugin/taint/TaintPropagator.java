@@ -0,0 +1,337 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.plugin.taint;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Propagates taint objects separately from points-to sets.
+ * <p>
+ * The taint objects pointed to by each pointer are kept in a bit set
+ * indexed by {@link TaintManager#getIndex(Obj)}. The taints flow along
+ * the edges of the pointer flow graph of the solver and the taint transfer
+ * edges, thus the points-to sets computed by the solver never contain
+ * taint objects.
+ */
+class TaintPropagator {
+
+    private final TaintManager manager;
+
+    /**
+     * Successors of pointers in the pointer flow graph.
+     */
+    private final Function<Pointer, Set<Pointer>> pfgSuccs;
+
+    /**
+     * Map from a pointer to the targets of its taint transfers, for each
+     * taint configuration. Only the taints of the configuration flow along
+     * these edges, and they change their types to the types of the objects
+     * pointed to by the targets.
+     */
+    private final List<MultiMap<Pointer, Pointer>> transferSuccs = new ArrayList<>();
+
+    /**
+     * Map from a pointer to the sources of its taint transfers, for each
+     * taint configuration, i.e., the inverse of {@link #transferSuccs}.
+     */
+    private final List<MultiMap<Pointer, Pointer>> transferPreds = new ArrayList<>();
+
+    /**
+     * Map from a pointer to the successors along the edges that only
+     * the taints of a configuration flow along, for each taint
+     * configuration, i.e., the edges sanitized by other configurations.
+     */
+    private final List<MultiMap<Pointer, Pointer>> configSuccs = new ArrayList<>();
+
+    /**
+     * Pointers whose new taints are reported to {@link #taintHandler}.
+     */
+    private final Predicate<Pointer> isWatched;
+
+    private final BiConsumer<Pointer, Obj> taintHandler;
+
+    /**
+     * Recorder of witness paths, or null if paths are not recorded.
+     */
+    private final TaintPaths paths;
+
+    private final Map<Pointer, BitSet> taints = Maps.newMap();
+
+    private final Queue<Entry> workList = new ArrayDeque<>();
+
+    private record Entry(Pointer pointer, BitSet taints) {
+    }
+
+    TaintPropagator(TaintManager manager,
+                    Function<Pointer, Set<Pointer>> pfgSuccs,
+                    Predicate<Pointer> isWatched,
+                    BiConsumer<Pointer, Obj> taintHandler,
+                    TaintPaths paths) {
+        this.manager = manager;
+        this.pfgSuccs = pfgSuccs;
+        this.isWatched = isWatched;
+        this.taintHandler = taintHandler;
+        this.paths = paths;
+    }
+
+    /**
+     * Adds a taint object to given pointer.
+     */
+    void addTaint(Pointer pointer, Obj taint) {
+        BitSet bits = new BitSet();
+        bits.set(manager.getIndex(taint));
+        workList.add(new Entry(pointer, bits));
+        propagate();
+    }
+
+    /**
+     * Propagates the taints of source along a new PFG edge.
+     */
+    void onNewPFGEdge(Pointer source, Pointer target) {
+        BitSet sourceTaints = taints.get(source);
+        if (sourceTaints != null) {
+            recordEdges(source, sourceTaints, target);
+            workList.add(new Entry(target, (BitSet) sourceTaints.clone()));
+            propagate();
+        }
+    }
+
+    /**
+     * Adds a taint transfer edge (source -> target) of given configuration.
+     */
+    void addTransferEdge(Pointer source, Pointer target, int configId) {
+        while (transferSuccs.size() <= configId) {
+            transferSuccs.add(Maps.newMultiMap());
+            transferPreds.add(Maps.newMultiMap());
+        }
+        if (transferSuccs.get(configId).put(source, target)) {
+            transferPreds.get(configId).put(target, source);
+            BitSet sourceTaints = taints.get(source);
+            if (sourceTaints != null) {
+                BitSet transferred = transfer(source,
+                        filter(sourceTaints, configId), target);
+                if (!transferred.isEmpty()) {
+                    workList.add(new Entry(target, transferred));
+                    propagate();
+                }
+            }
+        }
+    }
+
+    /**
+     * Transfers the taints of the sources of the taint transfers to given
+     * pointer again when it points to new objects. The transferred taints
+     * take the types of the objects pointed to by the target, thus the
+     * taints which arrived before the objects would be lost otherwise.
+     */
+    void onNewPointsTo(Pointer pointer, PointsToSet diff) {
+        Set<Type> types = null;
+        for (int configId = 0; configId < transferPreds.size(); ++configId) {
+            for (Pointer source : transferPreds.get(configId).get(pointer)) {
+                BitSet sourceTaints = taints.get(source);
+                if (sourceTaints != null) {
+                    if (types == null) {
+                        types = typesOf(diff);
+                    }
+                    BitSet transferred = transfer(source,
+                            filter(sourceTaints, configId), pointer, types);
+                    if (!transferred.isEmpty()) {
+                        workList.add(new Entry(pointer, transferred));
+                    }
+                }
+            }
+        }
+        propagate();
+    }
+
+    /**
+     * Adds an edge (source -> target) along which only the taints of
+     * given configuration flow.
+     */
+    void addConfigEdge(Pointer source, Pointer target, int configId) {
+        while (configSuccs.size() <= configId) {
+            configSuccs.add(Maps.newMultiMap());
+        }
+        if (configSuccs.get(configId).put(source, target)) {
+            BitSet sourceTaints = taints.get(source);
+            if (sourceTaints != null) {
+                BitSet configTaints = filter(sourceTaints, configId);
+                if (!configTaints.isEmpty()) {
+                    recordEdges(source, configTaints, target);
+                    workList.add(new Entry(target, configTaints));
+                    propagate();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the taint objects pointed to by given pointer.
+     */
+    Set<Obj> getTaints(Pointer pointer) {
+        BitSet bits = taints.get(pointer);
+        if (bits == null) {
+            return Set.of();
+        }
+        Set<Obj> result = Sets.newHybridSet();
+        bits.stream().forEach(i -> result.add(manager.getTaint(i)));
+        return Collections.unmodifiableSet(result);
+    }
+
+    private void propagate() {
+        while (!workList.isEmpty()) {
+            Entry entry = workList.poll();
+            Pointer pointer = entry.pointer();
+            BitSet current = taints.computeIfAbsent(pointer, p -> new BitSet());
+            BitSet diff = (BitSet) entry.taints().clone();
+            diff.andNot(current);
+            if (!diff.isEmpty()) {
+                current.or(diff);
+                if (isWatched.test(pointer)) {
+                    diff.stream().forEach(i ->
+                            taintHandler.accept(pointer, manager.getTaint(i)));
+                }
+                for (Pointer succ : pfgSuccs.apply(pointer)) {
+                    recordEdges(pointer, diff, succ);
+                    workList.add(new Entry(succ, diff));
+                }
+                for (int configId = 0; configId < transferSuccs.size(); ++configId) {
+                    Set<Pointer> succs = transferSuccs.get(configId).get(pointer);
+                    if (!succs.isEmpty()) {
+                        BitSet configDiff = filter(diff, configId);
+                        if (!configDiff.isEmpty()) {
+                            for (Pointer succ : succs) {
+                                workList.add(new Entry(succ,
+                                        transfer(pointer, configDiff, succ)));
+                            }
+                        }
+                    }
+                }
+                for (int configId = 0; configId < configSuccs.size(); ++configId) {
+                    Set<Pointer> succs = configSuccs.get(configId).get(pointer);
+                    if (!succs.isEmpty()) {
+                        BitSet configDiff = filter(diff, configId);
+                        if (!configDiff.isEmpty()) {
+                            for (Pointer succ : succs) {
+                                recordEdges(pointer, configDiff, succ);
+                                workList.add(new Entry(succ, configDiff));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the taints in given set that belong to given configuration.
+     */
+    private BitSet filter(BitSet taintSet, int configId) {
+        BitSet result = (BitSet) taintSet.clone();
+        result.and(manager.getTaintIndexes(configId));
+        return result;
+    }
+
+    /**
+     * Changes the types of given taints to the types of the objects
+     * pointed to by target.
+     *
+     * @return the indexes of the transferred taint objects.
+     */
+    private BitSet transfer(Pointer source, BitSet sourceTaints, Pointer target) {
+        Set<Type> types = typesOf(target.getPointsToSet());
+        BitSet targetTaints = taints.get(target);
+        if (targetTaints != null) {
+            targetTaints.stream().forEach(i ->
+                    types.add(manager.getTaint(i).getType()));
+        }
+        return transfer(source, sourceTaints, target, types);
+    }
+
+    /**
+     * Makes a taint object of each given type for each given taint.
+     *
+     * @return the indexes of the transferred taint objects.
+     */
+    private BitSet transfer(Pointer source, BitSet sourceTaints,
+                            Pointer target, Set<Type> types) {
+        BitSet result = new BitSet();
+        sourceTaints.stream().forEach(i -> {
+            Obj sourceTaint = manager.getTaint(i);
+            Invoke sourceCall = manager.getSourceCall(sourceTaint);
+            int configId = manager.getConfigId(sourceTaint);
+            for (Type type : types) {
+                Obj targetTaint = manager.makeTaint(sourceCall, type, configId);
+                if (paths != null) {
+                    paths.recordEdge(source, sourceTaint, target, targetTaint);
+                }
+                result.set(manager.getIndex(targetTaint));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return the types of the objects in given points-to set.
+     */
+    private static Set<Type> typesOf(PointsToSet pts) {
+        Set<Type> types = Sets.newHybridSet();
+        for (CSObj csObj : pts) {
+            types.add(csObj.getObject().getType());
+        }
+        return types;
+    }
+
+    /**
+     * Records the PFG edge (source -> target) as the predecessor
+     * of given taints at target.
+     */
+    private void recordEdges(Pointer source, BitSet sourceTaints, Pointer target) {
+        if (paths != null) {
+            sourceTaints.stream().forEach(i -> {
+                Obj taint = manager.getTaint(i);
+                paths.recordEdge(source, taint, target, taint);
+            });
+        }
+    }
+}
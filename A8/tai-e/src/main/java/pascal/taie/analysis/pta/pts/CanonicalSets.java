@@ -0,0 +1,80 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Table of canonical backing sets of shared points-to sets.
+ * Equal sets shared by different pointers are stored only once.
+ * <p>
+ * Each solver owns its table, so that the canonical sets of one
+ * analysis run are neither visible to nor retained by another run.
+ * The table is not thread-safe.
+ */
+public class CanonicalSets {
+
+    /**
+     * The entries are weakly referenced, so that a canonical set is
+     * reclaimed once no points-to set refers to it.
+     */
+    private final Map<Set<CSObj>, WeakReference<Set<CSObj>>> sets =
+            new WeakHashMap<>();
+
+    /**
+     * Makes given points-to set immutable and interns its objects,
+     * so that empty points-to sets can adopt them without copying.
+     * Later writes to given points-to set copy its objects first.
+     * <p>
+     * Given points-to set must not be the points-to set of a pointer,
+     * e.g., it can be a difference set or a work-list entry.
+     *
+     * @return given points-to set.
+     */
+    public PointsToSet share(PointsToSet pts) {
+        if (pts instanceof SharedPointsToSet sharedPTS) {
+            sharedPTS.share(this);
+        }
+        return pts;
+    }
+
+    /**
+     * @return the canonical set that equals to given set. The given set
+     * must not be modified after this call.
+     */
+    Set<CSObj> intern(Set<CSObj> set) {
+        WeakReference<Set<CSObj>> ref = sets.get(set);
+        Set<CSObj> canonical = ref != null ? ref.get() : null;
+        if (canonical == null) {
+            sets.put(set, new WeakReference<>(set));
+            canonical = set;
+        }
+        return canonical;
+    }
+}
@@ -23,20 +23,14 @@
 package pascal.taie.analysis.pta.pts;
 
 import pascal.taie.analysis.pta.core.cs.element.CSObj;
-import pascal.taie.util.collection.Sets;
-
-import java.util.Set;
-import java.util.function.Supplier;
 
 /**
  * Provides static factory methods for {@link PointsToSet}.
  */
 public class PointsToSetFactory {
 
-    private static final Supplier<Set<CSObj>> setFactory = Sets::newHybridSet;
-
     public static PointsToSet make() {
-        return new DelegatePointsToSet(setFactory.get());
+        return new SharedPointsToSet();
     }
 
     /**
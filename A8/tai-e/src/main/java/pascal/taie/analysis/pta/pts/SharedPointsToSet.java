@@ -0,0 +1,147 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Copy-on-write points-to set whose backing set may be shared with
+ * other points-to sets.
+ * <p>
+ * When an empty points-to set receives all objects of another one
+ * whose backing set is already shared, e.g., a difference set shared
+ * via {@link CanonicalSets#share(PointsToSet)}, it adopts that backing
+ * set instead of copying it. A points-to set that owns its backing set
+ * never gives it up, so receiving its objects copies them.
+ * A shared backing set is never modified in place: the first write to
+ * a points-to set that does not own its backing set makes a private
+ * copy first.
+ */
+class SharedPointsToSet implements PointsToSet {
+
+    /**
+     * Backing set of this points-to set.
+     */
+    private Set<CSObj> set;
+
+    /**
+     * Whether {@link #set} is private to this points-to set, i.e.,
+     * it can be modified in place.
+     */
+    private boolean owned;
+
+    SharedPointsToSet() {
+        this.set = Set.of();
+        this.owned = false;
+    }
+
+    @Override
+    public boolean addObject(CSObj obj) {
+        if (set.contains(obj)) {
+            return false;
+        }
+        ensureOwned();
+        return set.add(obj);
+    }
+
+    @Override
+    public boolean addAll(PointsToSet pts) {
+        if (pts instanceof SharedPointsToSet other) {
+            if (set == other.set) {
+                return false;
+            }
+            if (set.isEmpty() && !other.owned) {
+                if (other.set.isEmpty()) {
+                    return false;
+                }
+                set = other.set;
+                return true;
+            }
+        }
+        boolean changed = false;
+        for (CSObj obj : pts) {
+            changed |= addObject(obj);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean contains(CSObj obj) {
+        return set.contains(obj);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return set.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+    /**
+     * @return all objects in this set. The returned set may not reflect
+     * objects added to this points-to set later.
+     */
+    @Override
+    public Set<CSObj> getObjects() {
+        return Collections.unmodifiableSet(set);
+    }
+
+    @Override
+    public Stream<CSObj> objects() {
+        return set.stream();
+    }
+
+    @Override
+    public String toString() {
+        return set.toString();
+    }
+
+    /**
+     * Marks the backing set of this points-to set as shared, and
+     * replaces it by the canonical set in given table.
+     */
+    void share(CanonicalSets canonicalSets) {
+        if (owned) {
+            set = canonicalSets.intern(set);
+            owned = false;
+        }
+    }
+
+    /**
+     * Makes a private copy of the backing set if it is shared.
+     */
+    private void ensureOwned() {
+        if (!owned) {
+            set = set.isEmpty() ? Sets.newHybridSet() : Sets.newHybridSet(set);
+            owned = true;
+        }
+    }
+}
@@ -22,8 +22,28 @@
 
 package pascal.taie.analysis.pta;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
 import org.junit.Test;
+import pascal.taie.World;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.callgraph.CallGraphs;
+import pascal.taie.analysis.pta.core.cs.element.CSVar;
+import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.cs.CSPTA;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+import pascal.taie.analysis.pta.plugin.taint.TaintPaths;
+import pascal.taie.ir.exp.Var;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class TaintTest {
 
@@ -53,6 +73,12 @@ public class TaintTest {
                 "taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
 
+    @Test
+    public void testStringAppendHVN() {
+        Tests.testCSPTA(DIR, "StringAppend",
+                "hvn:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
     @Test
     public void testOneCallTaint() {
         Tests.testCSPTA(DIR, "OneCallTaint",
@@ -70,4 +96,359 @@ public class TaintTest {
         Tests.testCSPTA(DIR, "TaintInList",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
+
+    @Test
+    public void testTaintInListPreSized() {
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;pre-size:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testSimpleTaintSeparateTaint() {
+        Tests.testCSPTA(DIR, "SimpleTaint",
+                "separate-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testArgToResultSeparateTaint() {
+        Tests.testCSPTA(DIR, "ArgToResult",
+                "separate-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testBaseToResultSeparateTaint() {
+        Tests.testCSPTA(DIR, "BaseToResult",
+                "separate-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testStringAppendSeparateTaint() {
+        Tests.testCSPTA(DIR, "StringAppend",
+                "separate-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testOneCallTaintSeparateTaint() {
+        Tests.testCSPTA(DIR, "OneCallTaint",
+                "cs:1-call;separate-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testInterTaintTransferSeparateTaint() {
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                "cs:2-call;separate-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testTaintInListSeparateTaint() {
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;separate-taint:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    /**
+     * With taint-prune, identity() passes taints to the sink and keeps
+     * context sensitivity, thus the false flow to sink(ss1) is avoided.
+     */
+    @Test
+    public void testOneCallTaintPruned() {
+        Tests.testCSPTA(DIR, "OneCallTaint",
+                "cs:1-call;taint-prune:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    /**
+     * With taint-prune, the methods of StringList pass taints to the sink
+     * and keep context sensitivity, thus the false flow to sink(s2) is
+     * avoided.
+     */
+    @Test
+    public void testTaintInListPruned() {
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;taint-prune:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    /**
+     * The flows of the second configuration are a subset of the flows of
+     * the first one, thus the union of the flows stays unchanged.
+     */
+    @Test
+    public void testSimpleTaintTwoConfigs() {
+        Tests.testCSPTA(DIR, "SimpleTaint",
+                "taint-config:src/test/resources/pta/taint/taint-config.yml," +
+                        "src/test/resources/pta/taint/taint-config-no-transfer.yml");
+    }
+
+    @Test
+    public void testStringAppendTwoConfigs() {
+        Tests.testCSPTA(DIR, "StringAppend",
+                "taint-config:src/test/resources/pta/taint/taint-config.yml," +
+                        "src/test/resources/pta/taint/taint-config-no-transfer.yml");
+    }
+
+    /**
+     * The second argument of transfer() is sanitized, thus the flow
+     * from t3 disappears while the flows from t1 and t2 remain.
+     */
+    @Test
+    public void testInterTaintTransferSanitized() {
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                "cs:2-call;taint-paths:true;taint-config:src/test/resources/pta/taint/taint-config-sanitizer.yml",
+                "file:src/test/resources/pta/taint/InterTaintTransfer-cspta-sanitized-expected.txt");
+    }
+
+    @Test
+    public void testInterTaintTransferSanitizedSeparateTaint() {
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                "cs:2-call;separate-taint:true;taint-paths:true;taint-config:src/test/resources/pta/taint/taint-config-sanitizer.yml",
+                "file:src/test/resources/pta/taint/InterTaintTransfer-cspta-sanitized-expected.txt");
+    }
+
+    /**
+     * The context-insensitive phase reports the false flow to sink(s2),
+     * which the 2-obj phase on the slice refutes.
+     */
+    @Test
+    public void testTaintInListTwoPhase() {
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;taint-two-phase:true;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    /**
+     * In compare mode, the variants share the preprocessing, including
+     * the variable equivalence which pins the targets of taint transfers,
+     * and the result of the variant given by option cs is returned.
+     */
+    @Test
+    public void testInterTaintTransferCompare() {
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                "cs:2-call;hvn:true;compare:ci,1-call,2-call;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testStringAppendCompare() {
+        Tests.testCSPTA(DIR, "StringAppend",
+                "hvn:true;compare:ci,1-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
+
+    @Test
+    public void testInterTaintTransferPaths() {
+        testInterTaintTransferPaths("");
+    }
+
+    @Test
+    public void testInterTaintTransferPathsSeparateTaint() {
+        testInterTaintTransferPaths("separate-taint:true;");
+    }
+
+    /**
+     * Checks the witness paths of the flows in InterTaintTransfer. Each path
+     * starts at the result of the source call, passes the parameter of
+     * transfer() which receives the taint, and ends at the sink argument.
+     */
+    private static void testInterTaintTransferPaths(String opts) {
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                "cs:2-call;taint-paths:true;" + opts +
+                        "taint-config:src/test/resources/pta/taint/taint-config.yml");
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        Set<TaintFlow> flows = result.getResult(TaintAnalysiss.class.getName());
+        TaintPaths paths = result.getResult(TaintPaths.class.getName());
+        Assert.assertEquals(3, flows.size());
+        for (TaintFlow flow : flows) {
+            List<Var> path = paths.getPath(flow).stream()
+                    .map(TaintTest::getVar)
+                    .toList();
+            Assert.assertFalse(path.isEmpty());
+            Assert.assertEquals(flow.sourceCall().getResult(), path.get(0));
+            Assert.assertEquals(flow.sinkCall().getInvokeExp().getArg(flow.index()),
+                    path.get(path.size() - 1));
+            // t1 and t2 (lines 4 and 5) are passed to s1, and t3 to s2
+            String param = flow.sourceCall().getLineNumber() < 6 ? "s1" : "s2";
+            String other = param.equals("s1") ? "s2" : "s1";
+            Assert.assertTrue(path.stream().anyMatch(v -> isTransferParam(v, param)));
+            Assert.assertFalse(path.stream().anyMatch(v -> isTransferParam(v, other)));
+        }
+    }
+
+    private static Var getVar(Pointer pointer) {
+        Assert.assertTrue(pointer instanceof CSVar);
+        return ((CSVar) pointer).getVar();
+    }
+
+    private static boolean isTransferParam(Var var, String name) {
+        return var.getMethod().getName().equals("transfer") &&
+                var.getName().equals(name);
+    }
+
+    @Test
+    public void testOneCallTaintCheckpoint() throws IOException {
+        String opts = "cs:1-call;taint-config:src/test/resources/pta/taint/taint-config.yml";
+        Path dir = writeCheckpoint("OneCallTaint", opts, "1-call.ckpt");
+        Tests.testCSPTA(DIR, "OneCallTaint", opts, "resume-from:" + dir);
+    }
+
+    @Test
+    public void testInterTaintTransferCheckpoint() throws IOException {
+        Path dir = writeCheckpoint("InterTaintTransfer",
+                INTER_TAINT_TRANSFER_OPTS, "2-call.ckpt");
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                INTER_TAINT_TRANSFER_OPTS, "resume-from:" + dir);
+    }
+
+    /**
+     * Checks that a checkpoint, whose fingerprint does not match current
+     * program, is rejected. Its points-to sets are widened to all objects
+     * in all contexts, so the results would differ from the expected ones
+     * if it were used.
+     */
+    @Test
+    public void testCheckpointMismatch() throws IOException {
+        Path dir = writeCheckpoint("InterTaintTransfer",
+                INTER_TAINT_TRANSFER_OPTS, "2-call.ckpt");
+        Path file = dir.resolve("2-call.ckpt");
+        List<String> lines = Files.readAllLines(file);
+        List<String> contexts = getIds(lines, "c");
+        String csObjs = getIds(lines, "o").stream()
+                .flatMap(obj -> contexts.stream().map(ctx -> ctx + ":" + obj))
+                .collect(Collectors.joining(","));
+        Files.write(file, lines.stream().map(line -> {
+            if (line.startsWith("h\t")) {
+                return "h\t" + "0".repeat(64);
+            } else if (line.startsWith("p\t") || line.startsWith("w\t")) {
+                return line.substring(0, line.lastIndexOf('\t') + 1) + csObjs;
+            } else {
+                return line;
+            }
+        }).toList());
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                INTER_TAINT_TRANSFER_OPTS, "resume-from:" + dir);
+    }
+
+    /**
+     * Runs the analysis on given program with checkpoints enabled,
+     * and checks that the checkpoint of given name is written.
+     *
+     * @return the checkpoint directory.
+     */
+    private static Path writeCheckpoint(
+            String main, String opts, String name) throws IOException {
+        Path dir = Files.createTempDirectory("checkpoint");
+        Tests.testCSPTA(DIR, main, opts, "checkpoint:" + dir,
+                "checkpoint-interval:0", "checkpoint-check-interval:1");
+        Assert.assertTrue(Files.exists(dir.resolve(name)));
+        return dir;
+    }
+
+    /**
+     * @return the ids of the elements of given kind in checkpoint lines.
+     */
+    private static List<String> getIds(List<String> lines, String kind) {
+        return lines.stream()
+                .filter(line -> line.startsWith(kind + "\t"))
+                .map(line -> line.split("\t")[1])
+                .toList();
+    }
+
+    /**
+     * The sinks are declared on an interface method and a superclass method
+     * with overriders: true. Thus, the calls that dispatch to the implementing
+     * and the overriding methods are sinks.
+     */
+    @Test
+    public void testOverriddenSink() throws IOException {
+        Path dump = Files.createTempFile("dump", ".txt");
+        Tests.testCSPTA(DIR, "OverriddenSink",
+                "taint-config:src/test/resources/pta/taint/taint-config-overriders.yml",
+                "action:dump", "file:" + dump);
+        Set<String> sinkCalls = getTaintFlows().stream()
+                .map(flow -> flow.sinkCall().getMethodRef().getName() +
+                        "@L" + flow.sinkCall().getLineNumber() + "/" + flow.index())
+                .collect(Collectors.toSet());
+        Assert.assertEquals(Set.of("log@L5/0", "print@L9/0"), sinkCalls);
+    }
+
+    private static final String INTER_TAINT_TRANSFER_OPTS =
+            "cs:2-call;taint-config:src/test/resources/pta/taint/taint-config.yml";
+
+    /**
+     * Each flow is streamed as one NDJSON record.
+     */
+    @Test
+    public void testInterTaintTransferStream() throws IOException {
+        Path stream = Files.createTempFile("flows", ".ndjson");
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                INTER_TAINT_TRANSFER_OPTS + ";taint-flows-stream:" + stream);
+        Set<TaintFlow> flows = getTaintFlows();
+        Assert.assertEquals(3, flows.size());
+        Assert.assertEquals(toRecords(flows), readRecords(stream));
+        ObjectMapper mapper = new ObjectMapper();
+        for (String line : Files.readAllLines(stream)) {
+            JsonNode record = mapper.readTree(line);
+            Assert.assertEquals(0, record.get("config").asInt());
+            Assert.assertEquals("src/test/resources/pta/taint/taint-config.yml",
+                    record.get("configFile").asText());
+        }
+    }
+
+    /**
+     * Each sink argument in InterTaintTransfer receives one taint object
+     * at a time under 2-call, thus the analysis stops with exactly one of
+     * the three flows, which is also the only streamed flow.
+     */
+    @Test
+    public void testInterTaintTransferStopAfterFlows() throws IOException {
+        testInterTaintTransferStop("stop-after-flows:1");
+    }
+
+    /**
+     * All flows in InterTaintTransfer reach the same sink method.
+     */
+    @Test
+    public void testInterTaintTransferStopAtSinks() throws IOException {
+        testInterTaintTransferStop(
+                "stop-at-sinks:'<SourceSink: void sink(java.lang.String)>'");
+    }
+
+    private static void testInterTaintTransferStop(String stopOpt) throws IOException {
+        Tests.testCSPTA(DIR, "InterTaintTransfer", INTER_TAINT_TRANSFER_OPTS);
+        Set<String> allFlows = getTaintFlows().stream()
+                .map(TaintFlow::toString)
+                .collect(Collectors.toSet());
+
+        Path stream = Files.createTempFile("flows", ".ndjson");
+        Path dump = Files.createTempFile("dump", ".txt");
+        // the partial result differs from the expected file, thus it is dumped
+        Tests.testCSPTA(DIR, "InterTaintTransfer",
+                INTER_TAINT_TRANSFER_OPTS + ";taint-flows-stream:" + stream + ";" + stopOpt,
+                "action:dump", "file:" + dump);
+        Set<TaintFlow> flows = getTaintFlows();
+        Assert.assertEquals(1, flows.size());
+        Assert.assertTrue(allFlows.contains(flows.iterator().next().toString()));
+        Assert.assertEquals(toRecords(flows), readRecords(stream));
+    }
+
+    private static Set<TaintFlow> getTaintFlows() {
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        return result.getResult(TaintAnalysiss.class.getName());
+    }
+
+    /**
+     * @return the source, sink and index of given flows in the format
+     * of the streamed records.
+     */
+    private static Set<String> toRecords(Set<TaintFlow> flows) {
+        return flows.stream()
+                .map(flow -> CallGraphs.toString(flow.sourceCall()) + " -> " +
+                        CallGraphs.toString(flow.sinkCall()) + "/" + flow.index())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> readRecords(Path stream) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Set<String> records = new HashSet<>();
+        for (String line : Files.readAllLines(stream)) {
+            JsonNode record = mapper.readTree(line);
+            records.add(record.get("source").asText() + " -> " +
+                    record.get("sink").asText() + "/" + record.get("index").asInt());
+        }
+        return records;
+    }
 }
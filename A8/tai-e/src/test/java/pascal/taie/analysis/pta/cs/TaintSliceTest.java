@@ -0,0 +1,67 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.cs;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.plugin.taint.TaintAnalysiss;
+import pascal.taie.analysis.pta.plugin.taint.TaintFlow;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+public class TaintSliceTest {
+
+    /**
+     * The slice of the candidate flows of TaintInList keeps the methods
+     * of StringList, which hold the taint, and leaves out the callees
+     * which never handle the taint or its holders, e.g., source().
+     */
+    @Test
+    public void testTaintInList() throws IOException {
+        Path file = Files.createTempFile("slice", ".txt");
+        Tests.testCSPTA("taint", "TaintInList",
+                "taint-config:src/test/resources/pta/taint/taint-config.yml",
+                "action:dump", "file:" + file);
+        PointerAnalysisResult result = World.get().getResult(CSPTA.ID);
+        Set<TaintFlow> candidates = result.getResult(TaintAnalysiss.class.getName());
+        Assert.assertFalse(candidates.isEmpty());
+
+        Set<JMethod> slice = TaintSlice.of(result, candidates);
+        Set<String> names = Set.copyOf(slice.stream()
+                .map(m -> m.getDeclaringClass().getName() + "." + m.getName())
+                .toList());
+        Assert.assertTrue(slice.size() < result.getCallGraph().getNumberOfMethods());
+        Assert.assertTrue(names.contains("StringList.add"));
+        Assert.assertTrue(names.contains("StringList.ensureCapacity"));
+        Assert.assertTrue(names.contains("StringList.get"));
+        Assert.assertFalse(names.contains("SourceSink.source"));
+    }
+}
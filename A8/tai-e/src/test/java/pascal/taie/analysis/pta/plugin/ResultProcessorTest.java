@@ -0,0 +1,125 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.plugin;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+public class ResultProcessorTest {
+
+    private static final List<String> VARS = List.of(
+            "[]:<A: void m()>/a -> [[]:NewObj{<A: void m()>[0@L1] new A}]",
+            "[]:<A: void m()>/b -> []");
+
+    private static final List<String> ARRAYS = List.of(
+            "[]:NewObj{<A: void m()>[2@L3] new A[]}[*] -> [[]:NewObj{<A: void m()>[0@L1] new A}]");
+
+    /**
+     * Expected file whose sections are not in the order they are dumped.
+     */
+    private static final String REORDERED = String.join("\n",
+            "Points-to sets of all array indexes",
+            ARRAYS.get(0),
+            "",
+            "Points-to sets of all instance fields",
+            "",
+            "Points-to sets of all variables",
+            VARS.get(0),
+            VARS.get(1),
+            "",
+            "Points-to sets of all static fields",
+            "",
+            "");
+
+    @Test
+    public void testReorderedSections() throws IOException {
+        Path file = Files.createTempFile("pta-expected", ".txt");
+        try {
+            Files.writeString(file, REORDERED);
+            Assert.assertEquals(List.of(), compareAll(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testReorderedSectionsGzip() throws IOException {
+        Path file = Files.createTempFile("pta-expected", ".txt.gz");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+                out.write(REORDERED.getBytes(StandardCharsets.UTF_8));
+            }
+            Assert.assertEquals(List.of(), compareAll(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMismatches() throws IOException {
+        Path file = Files.createTempFile("pta-expected", ".txt");
+        try {
+            Files.writeString(file, REORDERED);
+            List<String> mismatches = new ArrayList<>();
+            ResultProcessor.compareSection(file, "variables",
+                    List.of(VARS.get(0)).iterator(), mismatches);
+            ResultProcessor.compareSection(file, "array indexes",
+                    List.of(ARRAYS.get(0).replace("[0@L1]", "[1@L2]")).iterator(),
+                    mismatches);
+            Assert.assertEquals(List.of(
+                    "[]:<A: void m()>/b, expected: [], given: null",
+                    "[]:NewObj{<A: void m()>[2@L3] new A[]}[*], expected: " +
+                            "[[]:NewObj{<A: void m()>[0@L1] new A}], given: " +
+                            "[[]:NewObj{<A: void m()>[1@L2] new A}]"),
+                    mismatches);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Compares the sections in the order they are dumped.
+     */
+    private static List<String> compareAll(Path file) {
+        List<String> mismatches = new ArrayList<>();
+        ResultProcessor.compareSection(file, "variables",
+                VARS.iterator(), mismatches);
+        ResultProcessor.compareSection(file, "static fields",
+                List.<String>of().iterator(), mismatches);
+        ResultProcessor.compareSection(file, "instance fields",
+                List.<String>of().iterator(), mismatches);
+        ResultProcessor.compareSection(file, "array indexes",
+                ARRAYS.iterator(), mismatches);
+        return mismatches;
+    }
+}
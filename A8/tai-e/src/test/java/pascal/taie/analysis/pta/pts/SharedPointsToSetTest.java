@@ -0,0 +1,145 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.pts;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.heap.MockObj;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.Set;
+
+public class SharedPointsToSetTest {
+
+    private final CSManager csManager = new MapBasedCSManager();
+
+    private CSObj newObj(String name) {
+        return csManager.getCSObj(ListContext.make(),
+                new MockObj("SharedPointsToSetTest", name, PrimitiveType.INT));
+    }
+
+    private PointsToSet makeShared(CanonicalSets canonicalSets, CSObj... objs) {
+        PointsToSet pts = PointsToSetFactory.make();
+        for (CSObj obj : objs) {
+            pts.addObject(obj);
+        }
+        return canonicalSets.share(pts);
+    }
+
+    @Test
+    public void testWriteToSharingSet() {
+        CSObj o1 = newObj("o1"), o2 = newObj("o2"), o3 = newObj("o3");
+        PointsToSet shared = makeShared(new CanonicalSets(), o1, o2);
+        PointsToSet sharer = PointsToSetFactory.make();
+        Assert.assertTrue(sharer.addAll(shared));
+
+        Assert.assertTrue(sharer.addObject(o3));
+        Assert.assertEquals(Set.of(o1, o2, o3), sharer.getObjects());
+        Assert.assertEquals(Set.of(o1, o2), shared.getObjects());
+        Assert.assertFalse(shared.contains(o3));
+    }
+
+    @Test
+    public void testWriteToSharedSet() {
+        CSObj o1 = newObj("o1"), o2 = newObj("o2"), o3 = newObj("o3");
+        PointsToSet shared = makeShared(new CanonicalSets(), o1, o2);
+        PointsToSet sharer1 = PointsToSetFactory.make();
+        PointsToSet sharer2 = PointsToSetFactory.make();
+        sharer1.addAll(shared);
+        sharer2.addAll(sharer1);
+
+        Assert.assertTrue(shared.addObject(o3));
+        Assert.assertEquals(Set.of(o1, o2, o3), shared.getObjects());
+        Assert.assertEquals(Set.of(o1, o2), sharer1.getObjects());
+        Assert.assertEquals(Set.of(o1, o2), sharer2.getObjects());
+    }
+
+    /**
+     * A points-to set that owns its objects keeps them when another
+     * points-to set receives them, and can still be modified.
+     */
+    @Test
+    public void testWriteToOwningSet() {
+        CSObj o1 = newObj("o1"), o2 = newObj("o2"), o3 = newObj("o3");
+        PointsToSet owner = PointsToSetFactory.make();
+        owner.addObject(o1);
+        owner.addObject(o2);
+        PointsToSet snapshot = PointsToSetFactory.make();
+        Assert.assertTrue(snapshot.addAll(owner));
+
+        Assert.assertTrue(owner.addObject(o3));
+        Assert.assertEquals(Set.of(o1, o2, o3), owner.getObjects());
+        Assert.assertEquals(Set.of(o1, o2), snapshot.getObjects());
+    }
+
+    @Test
+    public void testAddAllAfterWrite() {
+        CSObj o1 = newObj("o1"), o2 = newObj("o2"), o3 = newObj("o3");
+        PointsToSet owner = PointsToSetFactory.make();
+        owner.addObject(o1);
+        PointsToSet sharer = PointsToSetFactory.make();
+        sharer.addAll(owner);
+        owner.addObject(o2);
+        sharer.addObject(o3);
+
+        Assert.assertTrue(sharer.addAll(owner));
+        Assert.assertEquals(Set.of(o1, o2, o3), sharer.getObjects());
+        Assert.assertEquals(Set.of(o1, o2), owner.getObjects());
+    }
+
+    /**
+     * Equal sets shared via the same table are interned, and writes
+     * to any holder must leave the canonical set intact.
+     */
+    @Test
+    public void testCanonicalSetIntact() {
+        CSObj o1 = newObj("o1"), o2 = newObj("o2"), o3 = newObj("o3");
+        CanonicalSets canonicalSets = new CanonicalSets();
+        PointsToSet first = makeShared(canonicalSets, o1, o2);
+        PointsToSet firstSharer = PointsToSetFactory.make();
+        firstSharer.addAll(first);
+        first.addObject(o3);
+        firstSharer.addObject(o3);
+
+        // an equal set made independently adopts the interned set
+        PointsToSet second = makeShared(canonicalSets, o1, o2);
+        PointsToSet secondSharer = PointsToSetFactory.make();
+        secondSharer.addAll(second);
+        Assert.assertEquals(Set.of(o1, o2), secondSharer.getObjects());
+        Assert.assertEquals(Set.of(o1, o2), second.getObjects());
+        Assert.assertEquals(2, secondSharer.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetObjectsUnmodifiable() {
+        PointsToSet pts = makeShared(new CanonicalSets(), newObj("o1"));
+        PointsToSet sharer = PointsToSetFactory.make();
+        sharer.addAll(pts);
+        sharer.getObjects().add(newObj("o2"));
+    }
+}
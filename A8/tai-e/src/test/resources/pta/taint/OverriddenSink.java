@@ -0,0 +1,30 @@
+class OverriddenSink {
+
+    public static void main(String[] args) {
+        Logger logger = new FileLogger();
+        logger.log(SourceSink.source()); // taint, FileLogger.log() implements the sink
+        logger.log(new String()); // no taint
+
+        Printer printer = new FilePrinter();
+        printer.print(SourceSink.source()); // taint, FilePrinter.print() overrides the sink
+    }
+}
+
+interface Logger {
+    void log(String msg);
+}
+
+class FileLogger implements Logger {
+    public void log(String msg) {
+    }
+}
+
+class Printer {
+    void print(String s) {
+    }
+}
+
+class FilePrinter extends Printer {
+    void print(String s) {
+    }
+}